@@ -28,6 +28,8 @@ public class GenericLRAException extends WebApplicationException {
 
     private URL lraId;
     private int statusCode;
+    private boolean admissionRefused;
+    private long retryAfter;
 
     public int getStatusCode() {
         return statusCode;
@@ -37,11 +39,50 @@ public class GenericLRAException extends WebApplicationException {
         return lraId;
     }
 
+    /**
+     * A coordinator signals that one of its admission limits (such as
+     * {@link LRAClient#LRA_COORDINATOR_MAX_ACTIVE_KEY}) was reached with a
+     * <code>503</code> response carrying a <code>Retry-After</code> header. Any other
+     * <code>503</code>, such as one from a proxy in front of a coordinator that is down,
+     * is not an admission refusal.
+     *
+     * @return true if the client gave up because the coordinator refused the request
+     * on admission grounds
+     */
+    public boolean isAdmissionRefused() {
+        return admissionRefused;
+    }
+
+    /**
+     * @return the time (in milliseconds) after which the coordinator suggested that the
+     * request be retried or 0 if it did not make a suggestion
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
     public GenericLRAException(URL lraId, int statusCode, String message,
                                Throwable cause) {
+        this(lraId, statusCode, message, cause, false, 0L);
+    }
+
+    /**
+     * @param lraId the LRA that the request concerned (null if none)
+     * @param statusCode the status code of the coordinator's response
+     * @param message the reason for the failure
+     * @param cause the underlying failure (null if none)
+     * @param admissionRefused whether the coordinator refused the request because an
+     *                         admission limit was reached (see {@link #isAdmissionRefused()})
+     * @param retryAfter the time (in milliseconds) after which the coordinator suggested
+     *                   that the request be retried or 0 if it did not make a suggestion
+     */
+    public GenericLRAException(URL lraId, int statusCode, String message,
+                               Throwable cause, boolean admissionRefused, long retryAfter) {
         super(String.format("%s: %s", lraId, message), cause);
 
         this.lraId = lraId;
         this.statusCode = statusCode;
+        this.admissionRefused = admissionRefused;
+        this.retryAfter = retryAfter;
     }
 }
@@ -23,8 +23,10 @@ package org.eclipse.microprofile.lra.client;
 import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
 
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.net.URL;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +45,23 @@ public interface LRAClient {
      */
     String LRA_HTTP_RECOVERY_HEADER = "Long-Running-Action-Recovery";
 
+    /**
+     * the name of the HTTP header field that carries the idempotency key of a
+     * request to start, join, close or cancel an LRA. A coordinator that has
+     * already processed a request with the same key (and the same operation)
+     * within the idempotency window returns the original response instead of
+     * processing the request again
+     */
+    String LRA_HTTP_IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * the path, relative to the coordinator URL, of the coordinator readiness
+     * resource. A GET request on it returns <code>200 OK</code> once the
+     * coordinator is able to accept requests and
+     * <code>503 Service Unavailable</code> until then
+     */
+    String LRA_COORDINATOR_READY_PATH = "ready";
+
     /**
      * Key for looking up the config property that specifies which host a
      * coordinator is running on
@@ -61,6 +80,13 @@ public interface LRAClient {
      */
     String LRA_COORDINATOR_PATH_KEY = "lra.coordinator.path";
 
+    /**
+     * Key for looking up the config property that specifies a comma separated
+     * list of coordinator URLs that the client may use
+     * (see {@link LRAClient#setCoordinatorURIs(Collection)})
+     */
+    String LRA_COORDINATOR_URLS_KEY = "lra.coordinator.urls";
+
     /**
      * Key for looking up the config property that specifies which JAX-RS path a
      * recovery coordinator is running on
@@ -79,6 +105,193 @@ public interface LRAClient {
      */
     String LRA_RECOVERY_PATH_KEY = "lra.coordinator.recovery.path";
 
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of pooled HTTP connections that the client keeps open to coordinators
+     */
+    String LRA_HTTP_POOL_SIZE_KEY = "lra.http.pool.size";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of pooled HTTP connections that the client keeps open to a single
+     * coordinator
+     */
+    String LRA_HTTP_POOL_SIZE_PER_ROUTE_KEY = "lra.http.pool.size.per.route";
+
+    /**
+     * Key for looking up the config property that specifies how long (in
+     * milliseconds) an idle pooled connection is kept alive before it is closed
+     */
+    String LRA_HTTP_KEEP_ALIVE_KEY = "lra.http.keep.alive";
+
+    /**
+     * Key for looking up the config property that specifies the timeout (in
+     * milliseconds) for establishing a connection to a coordinator
+     */
+    String LRA_HTTP_CONNECT_TIMEOUT_KEY = "lra.http.connect.timeout";
+
+    /**
+     * Key for looking up the config property that specifies the timeout (in
+     * milliseconds) for reading a response from a coordinator
+     */
+    String LRA_HTTP_READ_TIMEOUT_KEY = "lra.http.read.timeout";
+
+    /**
+     * Key for looking up the config property that specifies the delay (in
+     * milliseconds) before the first retry of a failed participant callback
+     * (a request to a <code>@Complete</code>, <code>@Compensate</code> or <code>@Status</code> URL)
+     */
+    String LRA_PARTICIPANT_RETRY_DELAY_KEY = "lra.http.participant.retry.delay";
+
+    /**
+     * Key for looking up the config property that specifies the upper bound
+     * (in milliseconds) of the exponentially growing delay between retries of
+     * a failed participant callback
+     */
+    String LRA_PARTICIPANT_RETRY_MAX_DELAY_KEY = "lra.http.participant.retry.max.delay";
+
+    /**
+     * Key for looking up the config property that specifies the fraction
+     * (between 0 and 1) by which each retry delay is randomly varied so that
+     * retries of different LRAs targeting the same participant are spread out
+     */
+    String LRA_PARTICIPANT_RETRY_JITTER_KEY = "lra.http.participant.retry.jitter";
+
+    /**
+     * Key for looking up the config property that specifies how many times a
+     * participant callback is attempted before the participant is considered
+     * to be {@link CompensatorStatus#FailedToComplete} or
+     * {@link CompensatorStatus#FailedToCompensate}. A negative value means
+     * that attempts are never abandoned
+     */
+    String LRA_PARTICIPANT_RETRY_MAX_ATTEMPTS_KEY = "lra.http.participant.retry.max.attempts";
+
+    /**
+     * Key for looking up the config property that specifies the number of
+     * consecutive failed callbacks to a participant endpoint (scheme, host and
+     * port) after which no further callbacks are made to that endpoint, for any
+     * LRA, until the circuit reset timeout has elapsed
+     */
+    String LRA_PARTICIPANT_CIRCUIT_FAILURE_THRESHOLD_KEY = "lra.http.participant.circuit.failure.threshold";
+
+    /**
+     * Key for looking up the config property that specifies how long (in
+     * milliseconds) the circuit to an unavailable participant endpoint stays
+     * open before a single trial callback is allowed through
+     */
+    String LRA_PARTICIPANT_CIRCUIT_RESET_TIMEOUT_KEY = "lra.http.participant.circuit.reset.timeout";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of LRAs that a coordinator allows to be active at the same time. Requests
+     * to start an LRA beyond the limit are refused with
+     * <code>503 Service Unavailable</code> and a <code>Retry-After</code> header
+     */
+    String LRA_COORDINATOR_MAX_ACTIVE_KEY = "lra.coordinator.max.active";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of active LRAs that a coordinator allows to have been started with the
+     * same client id (see {@link LRAClient#startLRA(URL, String, Long, TimeUnit)})
+     */
+    String LRA_COORDINATOR_MAX_ACTIVE_PER_CLIENT_KEY = "lra.coordinator.max.active.per.client";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of active LRAs that a coordinator allows to be nested directly in the
+     * same parent LRA
+     */
+    String LRA_COORDINATOR_MAX_NESTED_KEY = "lra.coordinator.max.nested";
+
+    /**
+     * Key for looking up the config property that specifies how many times the
+     * client attempts to start an LRA that the coordinator refuses because an
+     * admission limit has been reached
+     */
+    String LRA_START_RETRY_MAX_ATTEMPTS_KEY = "lra.http.start.retry.max.attempts";
+
+    /**
+     * Key for looking up the config property that specifies the maximum time
+     * (in milliseconds) that the client waits, in total, between attempts to
+     * start an LRA that the coordinator refuses. The client waits for the time
+     * given in the <code>Retry-After</code> header of each refusal, limited by
+     * the time remaining
+     */
+    String LRA_START_RETRY_MAX_WAIT_KEY = "lra.http.start.retry.max.wait";
+
+    /**
+     * Key for looking up the config property that specifies for how long (in
+     * milliseconds) a coordinator remembers the idempotency keys of the
+     * requests it has processed (see {@link LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER})
+     */
+    String LRA_COORDINATOR_IDEMPOTENCY_WINDOW_KEY = "lra.coordinator.idempotency.window";
+
+    /**
+     * Key for looking up the config property that specifies how many terminal
+     * LRA outcomes ({@link CompensatorStatus#Completed} and
+     * {@link CompensatorStatus#Compensated}) the client remembers so that
+     * queries about them can be answered without contacting the coordinator
+     * (see <code>org.eclipse.microprofile.lra.support.LRAStatusCache</code>)
+     */
+    String LRA_CLIENT_STATUS_CACHE_SIZE_KEY = "lra.http.status.cache.size";
+
+    /**
+     * Key for looking up the config property that specifies for how long (in
+     * milliseconds) a coordinator remembers the outcome of an LRA after it has
+     * ended, so that late status queries can be answered (see
+     * <code>org.eclipse.microprofile.lra.support.TombstoneCache</code>)
+     */
+    String LRA_COORDINATOR_TOMBSTONE_TTL_KEY = "lra.coordinator.tombstone.ttl";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of ended LRAs whose outcome a coordinator remembers
+     */
+    String LRA_COORDINATOR_TOMBSTONE_CAPACITY_KEY = "lra.coordinator.tombstone.capacity";
+
+    /**
+     * Key for looking up the config property that specifies the acceptable
+     * probability that a coordinator's filter of known LRA ids (see
+     * <code>org.eclipse.microprofile.lra.support.LRAIdFilter</code>) fails to reject an
+     * unknown id, which then costs a lookup in the coordinator's store
+     */
+    String LRA_COORDINATOR_ID_FILTER_FPP_KEY = "lra.coordinator.id.filter.fpp";
+
+    /**
+     * Key for looking up the config property that specifies the maximum number
+     * of distinct participant endpoint sets that a coordinator shares between
+     * its participant records (see <code>org.eclipse.microprofile.lra.support.EndpointDictionary</code>)
+     */
+    String LRA_COORDINATOR_ENDPOINT_DICTIONARY_SIZE_KEY = "lra.coordinator.endpoint.dictionary.size";
+
+    /**
+     * Key for looking up the config property that specifies the number of LRA
+     * records that a coordinator keeps outside of the Java heap (see
+     * <code>org.eclipse.microprofile.lra.support.LRARecordStore</code>)
+     */
+    String LRA_COORDINATOR_RECORD_STORE_CAPACITY_KEY = "lra.coordinator.record.store.capacity";
+
+    /**
+     * Key for looking up the config property that specifies the number of bytes
+     * available for the LRA and client ids of the records that a coordinator
+     * keeps outside of the Java heap
+     */
+    String LRA_COORDINATOR_RECORD_STORE_ARENA_SIZE_KEY = "lra.coordinator.record.store.arena.size";
+
+    /**
+     * Key for looking up the config property that specifies the number of LRA
+     * lifecycle events that a coordinator buffers while they wait to be
+     * delivered to the {@link org.eclipse.microprofile.lra.spi.LRAEventListener}s
+     */
+    String LRA_EVENTS_BUFFER_SIZE_KEY = "lra.events.buffer.size";
+
+    /**
+     * Key for looking up the config property that specifies what a coordinator
+     * does with a lifecycle event when the event buffer is full: <code>DROP</code>
+     * discards it and <code>BLOCK</code> waits for room in the buffer
+     */
+    String LRA_EVENTS_OVERFLOW_POLICY_KEY = "lra.events.overflow.policy";
+
     /**
      * Set the endpoint on which the coordinator is available
      *
@@ -86,6 +299,27 @@ public interface LRAClient {
      */
     void setCoordinatorURI(URI uri);
 
+    /**
+     * Set the endpoints on which coordinators are available. New LRAs are
+     * started on one of these coordinators, chosen by the implementation
+     * (for example by consistent hashing or by load). Every other operation
+     * on an LRA is routed to the coordinator that started it, which is the
+     * coordinator encoded in the LRA id. Calling this method with a single
+     * URI is equivalent to calling {@link LRAClient#setCoordinatorURI(URI)}.
+     *
+     * The default implementation, for clients that only support a single
+     * coordinator, uses the first of the URIs.
+     *
+     * @param uris the urls of the LRA coordinators (must not be empty)
+     */
+    default void setCoordinatorURIs(Collection<URI> uris) {
+        if (uris.isEmpty()) {
+            throw new IllegalArgumentException("at least one coordinator URI is required");
+        }
+
+        setCoordinatorURI(uris.iterator().next());
+    }
+
     /**
      * Set the endpoint on which the recovery coordinator is available
      *
@@ -93,6 +327,51 @@ public interface LRAClient {
      */
     void setRecoveryCoordinatorURI(URI uri);
 
+    /**
+     * Wait until the coordinator (or, if more than one is configured, every
+     * coordinator) reports that it is ready to accept requests by polling
+     * its readiness resource ({@link LRAClient#LRA_COORDINATOR_READY_PATH}).
+     * A timeout of zero or less does not wait: the readiness resource is checked
+     * exactly once and the result of that single check is returned.
+     *
+     * The default implementation, for clients that predate the readiness
+     * resource, instead calls {@link LRAClient#getActiveLRAs()} every 100
+     * milliseconds and treats the first call that succeeds as readiness.
+     *
+     * @param timeout the maximum time to wait (zero or less for a single check)
+     * @param unit the unit that the timeout is expressed in
+     * @return true if the coordinator became ready within the timeout and
+     * false otherwise
+     */
+    default boolean awaitReady(long timeout, TimeUnit unit) {
+        // the wait is for a real coordinator to start so it is measured in real, not LRAClock, time
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (true) {
+            try {
+                getActiveLRAs();
+
+                return true;
+            } catch (RuntimeException e) {
+                // not ready yet
+            }
+
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return false;
+            }
+
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return false;
+            }
+        }
+    }
+
     /**
      * Explicitly dispose of all resources. After this call the instance may no
      * longer be useable
@@ -117,13 +396,56 @@ public interface LRAClient {
      * @throws NotFoundException if the parent LRA is known to no longer exist
      *
      * @throws GenericLRAException a new LRA could not be started. The specific
-     * reason is available in {@link GenericLRAException#getStatusCode()}
+     * reason is available in {@link GenericLRAException#getStatusCode()}. If the
+     * coordinator still refused to start the LRA, because an admission limit was
+     * reached, after the configured retries then the status code is
+     * <code>503</code> (see {@link GenericLRAException#isAdmissionRefused()})
      *
      * @return the identifier of the new LRA
      */
     URL startLRA(URL parentLRA, String clientID, Long timeout, TimeUnit unit)
             throws GenericLRAException;
 
+    /**
+     * Start a new LRA (ie similar to
+     * {@link LRAClient#startLRA(URL, String, Long, TimeUnit)}) such that the
+     * request can be safely retried: if the coordinator has already started an
+     * LRA for a request with the same idempotency key (within its idempotency
+     * window) then the id of that LRA is returned and no new LRA is started
+     *
+     * The default implementation, for clients that predate this method, sends
+     * the request without a key if idempotencyKey is null and otherwise throws a
+     * {@link GenericLRAException} with status code <code>501 Not Implemented</code>,
+     * since a request sent without its key would not be safe to retry.
+     *
+     * @param parentLRA The parent of the LRA that is about to start. If null then
+     *                 the new LRA will be top level
+     * @param clientID The client may provide a (preferably) unique identity which
+     *                will be reported back when the LRA is queried.
+     * @param timeout Specifies the maximum time that the LRA will exist for. If the
+     *               LRA is terminated because of a timeout it will be cancelled.
+     * @param unit Specifies the unit that the timeout is measured in
+     * @param idempotencyKey a key, unique to this logical request, that is sent in
+     *                       the {@link LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER}
+     *                       header (null to start an LRA unconditionally)
+     *
+     * @throws NotFoundException if the parent LRA is known to no longer exist
+     *
+     * @throws GenericLRAException a new LRA could not be started. The specific
+     * reason is available in {@link GenericLRAException#getStatusCode()}
+     *
+     * @return the identifier of the new (or previously started) LRA
+     */
+    default URL startLRA(URL parentLRA, String clientID, Long timeout, TimeUnit unit, String idempotencyKey)
+            throws GenericLRAException {
+        if (idempotencyKey == null) {
+            return startLRA(parentLRA, clientID, timeout, unit);
+        }
+
+        throw new GenericLRAException(parentLRA, Response.Status.NOT_IMPLEMENTED.getStatusCode(),
+                "idempotency keys are not supported by this client", null);
+    }
+
     /**
      * Start a top level LRA (ie similar to
      * {@link LRAClient#startLRA(URL, String, Long, TimeUnit)}
@@ -137,7 +459,10 @@ public interface LRAClient {
      * @throws NotFoundException if the parent LRA is known to no longer exist
      *
      * @throws GenericLRAException a new LRA could not be started. The specific
-     * reason is available in {@link GenericLRAException#getStatusCode()}
+     * reason is available in {@link GenericLRAException#getStatusCode()}. If the
+     * coordinator still refused to start the LRA, because an admission limit was
+     * reached, after the configured retries then the status code is
+     * <code>503</code> (see {@link GenericLRAException#isAdmissionRefused()})
      *
      * @return the identifier of the new LRA
      */
@@ -165,6 +490,37 @@ public interface LRAClient {
      */
     String cancelLRA(URL lraId) throws GenericLRAException;
 
+    /**
+     * Attempt to cancel an LRA (ie similar to {@link LRAClient#cancelLRA(URL)})
+     * such that the request can be safely retried: repeating the request with
+     * the same idempotency key (within the coordinator's idempotency window)
+     * returns the original response, even if the LRA has since been removed
+     *
+     * The default implementation, for clients that predate this method, sends
+     * the request without a key if idempotencyKey is null and otherwise throws a
+     * {@link GenericLRAException} with status code <code>501 Not Implemented</code>,
+     * since a request sent without its key would not be safe to retry.
+     *
+     * @param lraId The unique identifier of the LRA (required)
+     * @param idempotencyKey a key, unique to this logical request, that is sent in
+     *                       the {@link LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER} header
+     *
+     * @throws NotFoundException if the LRA no longer exists
+     *
+     * @throws GenericLRAException Communication error (the reason is availalbe via
+     * the {@link GenericLRAException#getStatusCode()} method
+     *
+     * @return the response MAY contain the final status of the LRA
+     */
+    default String cancelLRA(URL lraId, String idempotencyKey) throws GenericLRAException {
+        if (idempotencyKey == null) {
+            return cancelLRA(lraId);
+        }
+
+        throw new GenericLRAException(lraId, Response.Status.NOT_IMPLEMENTED.getStatusCode(),
+                "idempotency keys are not supported by this client", null);
+    }
+
     /**
      * Attempt to close an LRA
      *
@@ -186,10 +542,42 @@ public interface LRAClient {
      */
     String closeLRA(URL lraId) throws GenericLRAException;
 
+    /**
+     * Attempt to close an LRA (ie similar to {@link LRAClient#closeLRA(URL)})
+     * such that the request can be safely retried: repeating the request with
+     * the same idempotency key (within the coordinator's idempotency window)
+     * returns the original response, even if the LRA has since been removed
+     *
+     * The default implementation, for clients that predate this method, sends
+     * the request without a key if idempotencyKey is null and otherwise throws a
+     * {@link GenericLRAException} with status code <code>501 Not Implemented</code>,
+     * since a request sent without its key would not be safe to retry.
+     *
+     * @param lraId The unique identifier of the LRA (required)
+     * @param idempotencyKey a key, unique to this logical request, that is sent in
+     *                       the {@link LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER} header
+     *
+     * @throws NotFoundException if the LRA no longer exists
+     *
+     * @throws GenericLRAException Communication error (the reason is availalbe via
+     * the {@link GenericLRAException#getStatusCode()} method
+     *
+     * @return the response MAY contain the final status of the LRA
+     */
+    default String closeLRA(URL lraId, String idempotencyKey) throws GenericLRAException {
+        if (idempotencyKey == null) {
+            return closeLRA(lraId);
+        }
+
+        throw new GenericLRAException(lraId, Response.Status.NOT_IMPLEMENTED.getStatusCode(),
+                "idempotency keys are not supported by this client", null);
+    }
+
     /**
      * Lookup active LRAs
      *
-     * @return a list of active LRAs
+     * @return a list of active LRAs (on all of the coordinators that
+     * this client is configured to use)
      *
      * @throws GenericLRAException on error
      */
@@ -208,8 +596,9 @@ public interface LRAClient {
      * List recovering Long Running Actions
      *
      * @return LRAs that are recovering (ie the participant is still
-     * attempting to complete or compensate
-     *
+     * attempting to complete or compensate). Implementations should answer
+     * this query from an index of the recovering LRAs rather than by
+     * scanning every LRA known to the coordinator
      *
      * @throws GenericLRAException on error
      */
@@ -218,6 +607,12 @@ public interface LRAClient {
     /**
      * Lookup the status of an LRA
      *
+     * Implementations should not send a request for every call: concurrent
+     * calls for the same LRA should share a single request and, since they
+     * never change, the terminal outcomes {@link CompensatorStatus#Completed}
+     * and {@link CompensatorStatus#Compensated} should be remembered (so they
+     * may be reported even after the coordinator has forgotten the LRA)
+     *
      * @param lraId the LRA whose status is being requested
      *
      * @return the status or empty if the the LRA is still active (ie has not yet
@@ -234,7 +629,8 @@ public interface LRAClient {
 
     /**
      * Indicates whether an LRA is active. The same information can be obtained via
-     * a call to {@link LRAClient#getStatus(URL)}.
+     * a call to {@link LRAClient#getStatus(URL)}. As with that method, concurrent
+     * calls for the same LRA should share a single request.
      *
      * @param lraId The unique identifier of the LRA (required)
      *
@@ -257,7 +653,9 @@ public interface LRAClient {
      *
      * @return whether or not the specified LRA has been compensated
      *
-     * @throws NotFoundException if the LRA no longer exists
+     * @throws NotFoundException if the LRA no longer exists (an LRA that has
+     * ended continues to exist for the coordinator's tombstone time to live,
+     * see {@link LRAClient#LRA_COORDINATOR_TOMBSTONE_TTL_KEY})
      *
      * @throws GenericLRAException if the request to the coordinator failed.
      * {@link GenericLRAException#getCause()} and/or
@@ -274,7 +672,9 @@ public interface LRAClient {
      *
      * @return whether or not the specified LRA has been completed
      *
-     * @throws NotFoundException if the LRA no longer exists
+     * @throws NotFoundException if the LRA no longer exists (an LRA that has
+     * ended continues to exist for the coordinator's tombstone time to live,
+     * see {@link LRAClient#LRA_COORDINATOR_TOMBSTONE_TTL_KEY})
      *
      * @throws GenericLRAException if the request to the coordinator failed.
      * {@link GenericLRAException#getCause()} and/or
@@ -315,6 +715,54 @@ public interface LRAClient {
                    URL leaveUrl, URL statusUrl,
                    String compensatorData) throws GenericLRAException;
 
+    /**
+     * Join an LRA (ie similar to
+     * {@link LRAClient#joinLRA(URL, Long, URL, URL, URL, URL, URL, String)})
+     * such that the request can be safely retried: repeating the request with
+     * the same idempotency key (within the coordinator's idempotency window)
+     * returns the recovery URL of the original enlistment instead of enlisting
+     * the participant a second time
+     *
+     * The default implementation, for clients that predate this method, sends
+     * the request without a key if idempotencyKey is null and otherwise throws a
+     * {@link GenericLRAException} with status code <code>501 Not Implemented</code>,
+     * since a request sent without its key would not be safe to retry.
+     *
+     * @param lraId   The unique identifier of the LRA (required) to enlist with
+     * @param timelimit The time limit (in seconds) that the participant can
+     *                 guarantee that it can compensate the work performed while
+     *                 the LRA is active.
+     * @param compensateUrl the `compensatation URL`
+     * @param completeUrl the `completion URL`
+     * @param forgetUrl the `forget URL`
+     * @param leaveUrl the `leave URL`
+     * @param statusUrl the `status URL`
+     * @param compensatorData data that will be stored with the coordinator and
+     *                       passed back to the participant when the LRA is closed
+     *                       or cancelled
+     * @param idempotencyKey a key, unique to this logical request, that is sent in
+     *                       the {@link LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER} header
+     * @return a recovery URL for this enlistment
+     *
+     * @throws NotFoundException if the LRA no longer exists
+     *
+     * @throws GenericLRAException  if the request to the coordinator failed.
+     * {@link GenericLRAException#getCause()} and/or
+     * {@link GenericLRAException#getStatusCode()}
+     * may provide a more specific reason.
+     */
+    default String joinLRA(URL lraId, Long timelimit,
+                           URL compensateUrl, URL completeUrl, URL forgetUrl,
+                           URL leaveUrl, URL statusUrl,
+                           String compensatorData, String idempotencyKey) throws GenericLRAException {
+        if (idempotencyKey == null) {
+            return joinLRA(lraId, timelimit, compensateUrl, completeUrl, forgetUrl, leaveUrl, statusUrl, compensatorData);
+        }
+
+        throw new GenericLRAException(lraId, Response.Status.NOT_IMPLEMENTED.getStatusCode(),
+                "idempotency keys are not supported by this client", null);
+    }
+
     /**
      * Join an LRA passing in a class that will act as the participant.
      * Similar to {@link LRAClient#joinLRA(URL, Class, URI, String)} except
@@ -360,6 +808,31 @@ public interface LRAClient {
                           URL forgetUrl, URL statusUrl,
                           String compensatorData) throws GenericLRAException;
 
+    /**
+     * Change the endpoints of every participant whose URLs start with a given
+     * base URI. This is a bulk form of
+     * {@link LRAClient#updateCompensator(URL, URL, URL, URL, URL, String)}
+     * intended for use when a service has been redeployed to a new location:
+     * the recovery coordinator rewrites all matching participant records,
+     * across all LRAs, in a single request.
+     *
+     * The default implementation, for clients that predate this method, does
+     * not support relocation and always throws a {@link GenericLRAException}
+     * with status code <code>501 Not Implemented</code>.
+     *
+     * @param oldBaseUri the base URI that the participants were enlisted with
+     * @param newBaseUri the base URI that replaces oldBaseUri as the prefix of
+     *                   each matching participant URL
+     * @return the number of participant enlistments that were updated
+     * @throws GenericLRAException if the request to the recovery coordinator failed.
+     * {@link GenericLRAException#getCause()} and/or
+     * {@link GenericLRAException#getStatusCode()} may provide a more specific reason.
+     */
+    default int relocateParticipants(URI oldBaseUri, URI newBaseUri) throws GenericLRAException {
+        throw new GenericLRAException(null, Response.Status.NOT_IMPLEMENTED.getStatusCode(),
+                "relocating participants is not supported by this client", null);
+    }
+
     /**
      * A Compensator can resign from the LRA at any time prior to the completion
      * of an activity
@@ -381,7 +854,7 @@ public interface LRAClient {
      * LRAs can be created with timeouts after which they are cancelled. Use this
      * method to update the timeout.
      *
-     * @throws NotFoundException if the LRA no longer exists
+     * @throws NotFoundException if the LRA no longer exists (or never existed)
      *
      * @param lraId the id of the lra to update
      * @param limit the new timeout period
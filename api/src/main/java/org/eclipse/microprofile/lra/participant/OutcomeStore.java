@@ -0,0 +1,68 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.participant;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+
+/**
+ * Storage for the outcomes that a participant must remember. A participant that
+ * reports {@link CompensatorStatus#FailedToComplete} or {@link CompensatorStatus#FailedToCompensate},
+ * or that has not yet finished completing or compensating, must not forget the outcome
+ * until the coordinator tells it to (via the method annotated with
+ * {@link org.eclipse.microprofile.lra.annotation.Forget}) at which point the entry
+ * should be removed by calling {@link #forget(String)}.
+ *
+ * Implementations are safe for concurrent use and look outcomes up by LRA id in constant time.
+ */
+public interface OutcomeStore extends AutoCloseable {
+    /**
+     * Record (or replace) the outcome of a participant in an LRA
+     *
+     * @param lraId the id of the LRA
+     * @param status the current status of the participant
+     */
+    void put(String lraId, CompensatorStatus status);
+
+    /**
+     * @param lraId the id of the LRA
+     * @return the recorded outcome or null if there is none
+     */
+    CompensatorStatus get(String lraId);
+
+    /**
+     * Remove the outcome of a participant in an LRA, reclaiming the space it used
+     *
+     * @param lraId the id of the LRA
+     * @return true if an outcome was recorded for the LRA
+     */
+    boolean forget(String lraId);
+
+    /**
+     * @return the number of outcomes currently recorded
+     */
+    int size();
+
+    /**
+     * Release any resources held by the store, first writing any buffered outcomes to storage
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,233 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.participant;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the status of a participant in a single LRA, enforcing the participant state
+ * model defined by the specification:
+ *
+ * <ul>
+ *     <li>an active participant (one that has not yet been asked to complete or compensate)
+ *     may move to any {@link CompensatorStatus};</li>
+ *     <li>{@link CompensatorStatus#Completing} may only move to {@link CompensatorStatus#Completed}
+ *     or {@link CompensatorStatus#FailedToComplete};</li>
+ *     <li>{@link CompensatorStatus#Compensating} may only move to {@link CompensatorStatus#Compensated}
+ *     or {@link CompensatorStatus#FailedToCompensate};</li>
+ *     <li>the failed states may only be left by forgetting the participant
+ *     (see {@link org.eclipse.microprofile.lra.annotation.Forget});</li>
+ *     <li>{@link CompensatorStatus#Completed}, {@link CompensatorStatus#Compensated} and
+ *     forgotten participants are final.</li>
+ * </ul>
+ *
+ * The state is held in a single atomic variable so reads are cheap and transitions are
+ * made with compare-and-set, allowing the coordinator's {@code @Status} requests and the
+ * thread finishing the work to race safely without locks.
+ */
+public class ParticipantState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final CompensatorStatus[] STATUSES = CompensatorStatus.values();
+    // the state encoding: ACTIVE, then the status ordinal plus one, then FORGOTTEN
+    private static final int ACTIVE = 0;
+    private static final int FORGOTTEN = STATUSES.length + 1;
+
+    private final AtomicInteger state;
+
+    /**
+     * Create the state of a participant that is still active in the LRA
+     */
+    public ParticipantState() {
+        this(null);
+    }
+
+    /**
+     * Create the state of a participant
+     *
+     * @param status the initial status of the participant or null if it is still active
+     */
+    public ParticipantState(CompensatorStatus status) {
+        state = new AtomicInteger(encode(status));
+    }
+
+    /**
+     * @return the current status or null if the participant is still active or has been forgotten
+     */
+    public CompensatorStatus getStatus() {
+        return decode(state.get());
+    }
+
+    /**
+     * @return true if the participant has not yet been asked to complete or compensate
+     */
+    public boolean isActive() {
+        return state.get() == ACTIVE;
+    }
+
+    /**
+     * @return true if the participant has been forgotten
+     */
+    public boolean isForgotten() {
+        return state.get() == FORGOTTEN;
+    }
+
+    /**
+     * @return true if no further transitions are possible
+     */
+    public boolean isFinal() {
+        int current = state.get();
+
+        return current == FORGOTTEN
+                || current == encode(CompensatorStatus.Completed)
+                || current == encode(CompensatorStatus.Compensated);
+    }
+
+    /**
+     * Move the participant to a new status provided that it is currently in the expected one
+     *
+     * @param expect the expected current status (null meaning that the participant is active)
+     * @param update the new status
+     * @return true if the participant was moved to the new status or false if it was not
+     *         in the expected status
+     * @throws IllegalArgumentException if the state model does not allow a transition from
+     *         the expected status to the new one
+     */
+    public boolean compareAndSet(CompensatorStatus expect, CompensatorStatus update) {
+        if (!isValidTransition(expect, update)) {
+            throw new IllegalArgumentException(String.format("invalid participant transition from %s to %s", expect, update));
+        }
+
+        return state.compareAndSet(encode(expect), encode(update));
+    }
+
+    /**
+     * Move the participant to a new status from whatever status it is currently in. Repeating
+     * a transition that has already been made (for example, because the coordinator retried a
+     * request to complete the participant) is not an error.
+     *
+     * @param update the new status
+     * @return true if this call moved the participant to the new status or false if the
+     *         participant was already in it
+     * @throws IllegalStateException if the state model does not allow a transition from
+     *         the current status to the new one
+     */
+    public boolean transitionTo(CompensatorStatus update) {
+        int next = encode(update);
+
+        while (true) {
+            int current = state.get();
+
+            if (current == next) {
+                return false;
+            }
+
+            if (current == FORGOTTEN || !isValidTransition(decode(current), update)) {
+                throw new IllegalStateException(String.format("invalid participant transition from %s to %s",
+                        current == FORGOTTEN ? "forgotten" : decode(current), update));
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Put the participant into a status regardless of the state model, for example when
+     * restoring a participant from a log during recovery. Since the change is not checked,
+     * a transition racing with it may be made from the status it replaced.
+     *
+     * @param status the new status or null to make the participant active again
+     */
+    public void set(CompensatorStatus status) {
+        state.set(encode(status));
+    }
+
+    /**
+     * Forget a participant that failed to complete or compensate
+     *
+     * @return true if this call forgot the participant or false if it had already been forgotten
+     * @throws IllegalStateException if the participant has not failed
+     */
+    public boolean forget() {
+        int completeFailure = encode(CompensatorStatus.FailedToComplete);
+        int compensateFailure = encode(CompensatorStatus.FailedToCompensate);
+
+        while (true) {
+            int current = state.get();
+
+            if (current == FORGOTTEN) {
+                return false;
+            }
+
+            if (current != completeFailure && current != compensateFailure) {
+                throw new IllegalStateException("only participants that failed can be forgotten: " + decode(current));
+            }
+
+            if (state.compareAndSet(current, FORGOTTEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param from the current status (null meaning that the participant is active)
+     * @param to the new status
+     * @return true if the participant state model allows the transition
+     */
+    public static boolean isValidTransition(CompensatorStatus from, CompensatorStatus to) {
+        if (to == null) {
+            return false;
+        }
+
+        if (from == null) {
+            return true;
+        }
+
+        switch (from) {
+            case Completing:
+                return to == CompensatorStatus.Completed || to == CompensatorStatus.FailedToComplete;
+            case Compensating:
+                return to == CompensatorStatus.Compensated || to == CompensatorStatus.FailedToCompensate;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        int current = state.get();
+
+        return current == ACTIVE ? "Active" : current == FORGOTTEN ? "Forgotten" : decode(current).name();
+    }
+
+    private static int encode(CompensatorStatus status) {
+        return status == null ? ACTIVE : status.ordinal() + 1;
+    }
+
+    private static CompensatorStatus decode(int state) {
+        return state == ACTIVE || state == FORGOTTEN ? null : STATUSES[state - 1];
+    }
+}
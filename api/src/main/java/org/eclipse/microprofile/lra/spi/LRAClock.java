@@ -0,0 +1,69 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The source of time for everything in an LRA deployment that depends on the
+ * passage of time: LRA and participant time limits (including limits that
+ * are changed via
+ * {@link org.eclipse.microprofile.lra.client.LRAClient#renewTimeLimit}),
+ * recovery backoff and participants that wait for work to finish.
+ *
+ * Coordinators, participants and the TCK obtain the clock from
+ * {@link LRAClockProvider#getClock()} so that when they share a JVM they
+ * can all be driven by a {@link VirtualClock}, allowing time dependent
+ * scenarios to run without actually waiting.
+ */
+public interface LRAClock {
+    /**
+     * @return the current time in milliseconds since the epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return the value of a monotonic time source in nanoseconds, only
+     * meaningful when compared with another value returned by this method
+     */
+    long nanoTime();
+
+    /**
+     * Wait until the given amount of time has passed on this clock
+     *
+     * @param duration the amount of time to wait
+     * @param unit the unit that the duration is expressed in
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    void sleep(long duration, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Run a task once the given amount of time has passed on this clock
+     * (for example to cancel an LRA whose time limit has been reached)
+     *
+     * @param task the task to run
+     * @param delay the amount of time to wait before running the task
+     * @param unit the unit that the delay is expressed in
+     * @return a future that can be used to cancel the task
+     */
+    Future<?> schedule(Runnable task, long delay, TimeUnit unit);
+}
@@ -0,0 +1,76 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Gives access to the {@link LRAClock} shared by the components of an LRA deployment.
+ *
+ * The clock is the first {@link LRAClock} registered with the {@link ServiceLoader}
+ * mechanism (ie listed in a <code>META-INF/services/org.eclipse.microprofile.lra.spi.LRAClock</code>
+ * file) or, if there is none, a {@link SystemClock}. It may also be replaced
+ * programmatically via {@link LRAClockProvider#setClock(LRAClock)}.
+ */
+public final class LRAClockProvider {
+    private static volatile LRAClock clock;
+
+    private LRAClockProvider() {
+    }
+
+    /**
+     * @return the clock that time dependent behaviour must be based on
+     */
+    public static LRAClock getClock() {
+        LRAClock current = clock;
+
+        if (current == null) {
+            synchronized (LRAClockProvider.class) {
+                if (clock == null) {
+                    clock = loadClock();
+                }
+
+                current = clock;
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Replace the shared clock (for example with a {@link VirtualClock} before running time
+     * dependent tests)
+     *
+     * @param newClock the clock to use or null to revert to the default clock
+     */
+    public static void setClock(LRAClock newClock) {
+        synchronized (LRAClockProvider.class) {
+            clock = newClock;
+        }
+    }
+
+    private static LRAClock loadClock() {
+        Iterator<LRAClock> clocks = ServiceLoader.load(LRAClock.class).iterator();
+
+        return clocks.hasNext() ? clocks.next() : new SystemClock();
+    }
+}
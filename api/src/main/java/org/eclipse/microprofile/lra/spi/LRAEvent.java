@@ -0,0 +1,112 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+/**
+ * A change in the lifecycle of an LRA, delivered to {@link LRAEventListener}s
+ */
+public class LRAEvent {
+    /**
+     * The kinds of lifecycle change
+     */
+    public enum Type {
+        /**
+         * The LRA was started
+         */
+        STARTED,
+        /**
+         * A participant joined the LRA
+         */
+        JOINED,
+        /**
+         * A participant left the LRA
+         */
+        LEFT,
+        /**
+         * The LRA was closed
+         */
+        CLOSED,
+        /**
+         * The LRA was cancelled
+         */
+        CANCELLED,
+        /**
+         * The LRA was cancelled because its time limit was reached
+         */
+        TIMED_OUT,
+    }
+
+    private final Type type;
+    private final String lraId;
+    private final String participant;
+    private final long timestamp;
+
+    /**
+     * @param type the kind of lifecycle change
+     * @param lraId the id of the LRA
+     * @param participant the participant that joined or left the LRA (null for other kinds of event)
+     * @param timestamp when the change happened, in milliseconds since the epoch
+     */
+    public LRAEvent(Type type, String lraId, String participant, long timestamp) {
+        this.type = type;
+        this.lraId = lraId;
+        this.participant = participant;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the kind of lifecycle change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the id of the LRA
+     */
+    public String getLraId() {
+        return lraId;
+    }
+
+    /**
+     * @return the participant that joined or left the LRA or null for other kinds of event
+     */
+    public String getParticipant() {
+        return participant;
+    }
+
+    /**
+     * @return when the change happened, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "LRAEvent{" +
+                "type=" + type +
+                ", lraId='" + lraId + '\'' +
+                ", participant='" + participant + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+/**
+ * Receives notifications of changes in the lifecycle of LRAs (for example to audit them
+ * or to invalidate cached data). Listeners are registered with the {@link java.util.ServiceLoader}
+ * mechanism (ie listed in a <code>META-INF/services/org.eclipse.microprofile.lra.spi.LRAEventListener</code>
+ * file) and are called by a dispatcher (such as <code>org.eclipse.microprofile.lra.support.LRAEventDispatcher</code>)
+ * on its own thread, never on the thread processing the LRA, so a slow listener delays other listeners but not the LRA itself.
+ */
+public interface LRAEventListener {
+    /**
+     * Called, on the dispatcher thread, for each lifecycle change in the order in which the changes
+     * were published. Exceptions thrown by the listener are ignored.
+     *
+     * @param event the lifecycle change
+     */
+    void onEvent(LRAEvent event);
+}
@@ -0,0 +1,122 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+/**
+ * The names and tags of the metrics reported into {@link LRAMetrics}. The names follow the
+ * MicroProfile Metrics conventions (they are registered in the application scope, so the
+ * exported names are prefixed with <code>application:</code>).
+ */
+public final class LRAMetricNames {
+    /**
+     * Gauge: the number of LRAs that are currently active
+     */
+    public static final String ACTIVE_LRAS = "lra.active";
+
+    /**
+     * Gauge: the number of LRAs in a particular state, tagged with {@link #STATUS_TAG}
+     * (one of the {@link org.eclipse.microprofile.lra.annotation.CompensatorStatus} names)
+     */
+    public static final String LRAS_BY_STATUS = "lra.status";
+
+    /**
+     * Meter: LRAs that have been started
+     */
+    public static final String STARTED_LRAS = "lra.started";
+
+    /**
+     * Meter: LRAs that have finished, tagged with {@link #OUTCOME_TAG} ({@link #CLOSED} or
+     * {@link #CANCELLED}) so that the rate of terminations per second can be derived
+     */
+    public static final String TERMINATED_LRAS = "lra.terminated";
+
+    /**
+     * Timer: the duration of a request that a client makes to a coordinator, tagged with
+     * {@link #OPERATION_TAG} (the name of the
+     * {@link org.eclipse.microprofile.lra.client.LRAClient} method, such as <code>startLRA</code>,
+     * <code>joinLRA</code> or <code>closeLRA</code>)
+     */
+    public static final String CLIENT_CALL_DURATION = "lra.client.call.duration";
+
+    /**
+     * Counter: requests that a client made to a coordinator that failed, tagged with {@link #OPERATION_TAG}
+     */
+    public static final String CLIENT_CALL_FAILURES = "lra.client.call.failures";
+
+    /**
+     * Timer: the duration of the callbacks that a coordinator makes to participants, tagged with
+     * {@link #ENDPOINT_TAG} ({@link #COMPLETE}, {@link #COMPENSATE}, {@link #STATUS} or {@link #FORGET})
+     */
+    public static final String PARTICIPANT_CALLBACK_DURATION = "lra.participant.callback.duration";
+
+    /**
+     * Gauge: the number of participants that the recovery system is waiting to retry
+     */
+    public static final String RECOVERY_QUEUE_DEPTH = "lra.recovery.queue.depth";
+
+    /**
+     * Counter: LRA lifecycle events that were published but will not be delivered to the listeners
+     * (because the dispatcher's buffer was full or the dispatcher had been closed)
+     */
+    public static final String EVENTS_DROPPED = "lra.events.dropped";
+
+    /**
+     * Counter: LRA lifecycle events that a listener failed to process (by throwing an exception)
+     */
+    public static final String EVENT_LISTENER_FAILURES = "lra.events.listener.failures";
+
+    /**
+     * Counter: status queries that a client answered from the terminal outcomes it remembers,
+     * without a request to the coordinator
+     */
+    public static final String STATUS_CACHE_HITS = "lra.client.status.cache.hits";
+
+    /**
+     * Counter: status queries that a client answered by waiting for an identical query that was
+     * already in flight, instead of making a request of their own
+     */
+    public static final String STATUS_QUERIES_COALESCED = "lra.client.status.coalesced";
+
+    public static final String STATUS_TAG = "status";
+    public static final String OUTCOME_TAG = "outcome";
+    public static final String OPERATION_TAG = "operation";
+    public static final String ENDPOINT_TAG = "endpoint";
+
+    public static final String CLOSED = "closed";
+    public static final String CANCELLED = "cancelled";
+
+    public static final String COMPLETE = "complete";
+    public static final String COMPENSATE = "compensate";
+    public static final String STATUS = "status";
+    public static final String FORGET = "forget";
+
+    private LRAMetricNames() {
+    }
+
+    /**
+     * @param key the tag key
+     * @param value the tag value
+     * @return the tag in the <code>key=value</code> form used by {@link LRAMetrics}
+     */
+    public static String tag(String key, String value) {
+        return key + '=' + value;
+    }
+}
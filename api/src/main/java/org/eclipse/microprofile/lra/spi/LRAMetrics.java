@@ -0,0 +1,72 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The sink that LRA clients, coordinators and participants report metrics into.
+ * The methods mirror the MicroProfile Metrics types so that an implementation can
+ * forward them to a MicroProfile Metrics registry (or to any other metrics library).
+ * Metric names are defined by {@link LRAMetricNames} and tags are given as
+ * <code>key=value</code> strings, for example {@code "operation=closeLRA"}.
+ *
+ * Components obtain the sink from {@link LRAMetricsProvider#getMetrics()}. Reporting
+ * happens on the caller's thread so implementations must be thread safe and cheap.
+ */
+public interface LRAMetrics {
+    /**
+     * Increment a counter
+     *
+     * @param name the name of the counter
+     * @param tags the tags qualifying the counter
+     */
+    void counter(String name, String... tags);
+
+    /**
+     * Mark the occurrence of an event whose rate (such as the number of LRAs terminated per second) is of interest
+     *
+     * @param name the name of the meter
+     * @param tags the tags qualifying the meter
+     */
+    void meter(String name, String... tags);
+
+    /**
+     * Record the duration of an operation
+     *
+     * @param name the name of the timer
+     * @param duration how long the operation took
+     * @param unit the unit that the duration is expressed in
+     * @param tags the tags qualifying the timer
+     */
+    void timer(String name, long duration, TimeUnit unit, String... tags);
+
+    /**
+     * Register a gauge. The value is read whenever the metrics are collected so it should be cheap to compute.
+     * Registering a gauge with the same name and tags as an existing one replaces it.
+     *
+     * @param name the name of the gauge
+     * @param value supplies the current value of the gauge
+     * @param tags the tags qualifying the gauge
+     */
+    void gauge(String name, LongSupplier value, String... tags);
+}
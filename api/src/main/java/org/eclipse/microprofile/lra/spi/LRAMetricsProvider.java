@@ -0,0 +1,75 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Gives access to the {@link LRAMetrics} sink shared by the components of an LRA deployment.
+ *
+ * The sink is the first {@link LRAMetrics} registered with the {@link ServiceLoader}
+ * mechanism (ie listed in a <code>META-INF/services/org.eclipse.microprofile.lra.spi.LRAMetrics</code>
+ * file) or, if there is none, a {@link NoopMetrics}. It may also be replaced
+ * programmatically via {@link LRAMetricsProvider#setMetrics(LRAMetrics)}.
+ */
+public final class LRAMetricsProvider {
+    private static volatile LRAMetrics metrics;
+
+    private LRAMetricsProvider() {
+    }
+
+    /**
+     * @return the sink that metrics must be reported into
+     */
+    public static LRAMetrics getMetrics() {
+        LRAMetrics current = metrics;
+
+        if (current == null) {
+            synchronized (LRAMetricsProvider.class) {
+                if (metrics == null) {
+                    metrics = loadMetrics();
+                }
+
+                current = metrics;
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Replace the shared metrics sink
+     *
+     * @param newMetrics the sink to use or null to revert to the default sink
+     */
+    public static void setMetrics(LRAMetrics newMetrics) {
+        synchronized (LRAMetricsProvider.class) {
+            metrics = newMetrics;
+        }
+    }
+
+    private static LRAMetrics loadMetrics() {
+        Iterator<LRAMetrics> sinks = ServiceLoader.load(LRAMetrics.class).iterator();
+
+        return sinks.hasNext() ? sinks.next() : new NoopMetrics();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link LRAMetrics} that discards everything reported to it. This is the sink returned by
+ * {@link LRAMetricsProvider#getMetrics()} unless another one has been configured.
+ */
+public final class NoopMetrics implements LRAMetrics {
+    @Override
+    public void counter(String name, String... tags) {
+    }
+
+    @Override
+    public void meter(String name, String... tags) {
+    }
+
+    @Override
+    public void timer(String name, long duration, TimeUnit unit, String... tags) {
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value, String... tags) {
+    }
+}
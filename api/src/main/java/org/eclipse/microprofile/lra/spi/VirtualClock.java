@@ -0,0 +1,140 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.spi;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link LRAClock} whose time only moves when it is advanced programmatically,
+ * either explicitly via {@link VirtualClock#advance(long, TimeUnit)} or by a
+ * thread that calls {@link VirtualClock#sleep(long, TimeUnit)}. Scheduled tasks
+ * run, in order of their due time, on the thread that advances the clock past
+ * that time.
+ */
+public class VirtualClock implements LRAClock {
+    private final long epochMillis;
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>();
+
+    private long nanos;
+    private long sequence;
+
+    /**
+     * Create a virtual clock that starts at the current system time
+     */
+    public VirtualClock() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * @param epochMillis the time, in milliseconds since the epoch, that the clock starts at
+     */
+    public VirtualClock(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return epochMillis + TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return nanos;
+    }
+
+    /**
+     * Sleeping on a virtual clock does not block: it advances the clock by the requested amount
+     */
+    @Override
+    public void sleep(long duration, TimeUnit unit) {
+        advance(duration, unit);
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+
+        synchronized (this) {
+            tasks.add(new ScheduledTask(nanos + unit.toNanos(Math.max(delay, 0)), sequence++, future));
+        }
+
+        // run the task straight away if it is already due
+        advance(0, TimeUnit.NANOSECONDS);
+
+        return future;
+    }
+
+    /**
+     * Move the clock forward running any tasks that become due on the way
+     *
+     * @param duration the amount of time to move the clock forward by
+     * @param unit the unit that the duration is expressed in
+     */
+    public void advance(long duration, TimeUnit unit) {
+        long target;
+
+        synchronized (this) {
+            target = nanos + unit.toNanos(Math.max(duration, 0));
+        }
+
+        while (true) {
+            FutureTask<Void> due;
+
+            synchronized (this) {
+                ScheduledTask next = tasks.peek();
+
+                if (next == null || next.dueNanos > target) {
+                    nanos = Math.max(nanos, target);
+                    return;
+                }
+
+                tasks.poll();
+                nanos = Math.max(nanos, next.dueNanos);
+                due = next.task;
+            }
+
+            // run outside of the lock so that the task can use the clock
+            due.run();
+        }
+    }
+
+    private static final class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long dueNanos;
+        private final long sequence;
+        private final FutureTask<Void> task;
+
+        private ScheduledTask(long dueNanos, long sequence, FutureTask<Void> task) {
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byTime = Long.compare(dueNanos, other.dueNanos);
+
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
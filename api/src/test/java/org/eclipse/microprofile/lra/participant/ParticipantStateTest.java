@@ -0,0 +1,180 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.participant;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParticipantStateTest {
+
+    @Test
+    public void activeParticipantMayMoveToAnyStatus() {
+        for (CompensatorStatus status : CompensatorStatus.values()) {
+            ParticipantState state = new ParticipantState();
+
+            assertTrue(state.isActive());
+            assertTrue(state.compareAndSet(null, status));
+            assertEquals(status, state.getStatus());
+            assertFalse(state.isActive());
+        }
+    }
+
+    @Test
+    public void validTransitions() {
+        for (CompensatorStatus from : CompensatorStatus.values()) {
+            for (CompensatorStatus to : CompensatorStatus.values()) {
+                boolean expected = (from == CompensatorStatus.Completing
+                        && (to == CompensatorStatus.Completed || to == CompensatorStatus.FailedToComplete))
+                        || (from == CompensatorStatus.Compensating
+                        && (to == CompensatorStatus.Compensated || to == CompensatorStatus.FailedToCompensate));
+
+                assertEquals(from + " to " + to, expected, ParticipantState.isValidTransition(from, to));
+            }
+        }
+
+        assertFalse(ParticipantState.isValidTransition(null, null));
+        assertFalse(ParticipantState.isValidTransition(CompensatorStatus.Completing, null));
+    }
+
+    @Test
+    public void compareAndSetChecksTheExpectedStatus() {
+        ParticipantState state = new ParticipantState(CompensatorStatus.Compensating);
+
+        assertFalse(state.compareAndSet(CompensatorStatus.Completing, CompensatorStatus.Completed));
+        assertEquals(CompensatorStatus.Compensating, state.getStatus());
+        assertTrue(state.compareAndSet(CompensatorStatus.Compensating, CompensatorStatus.Compensated));
+        assertTrue(state.isFinal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compareAndSetRejectsInvalidTransitions() {
+        new ParticipantState(CompensatorStatus.Completed).compareAndSet(CompensatorStatus.Completed, CompensatorStatus.Compensating);
+    }
+
+    @Test
+    public void transitionToIsIdempotent() {
+        ParticipantState state = new ParticipantState();
+
+        assertTrue(state.transitionTo(CompensatorStatus.Completing));
+        assertFalse(state.transitionTo(CompensatorStatus.Completing));
+        assertTrue(state.transitionTo(CompensatorStatus.Completed));
+        assertFalse(state.transitionTo(CompensatorStatus.Completed));
+    }
+
+    @Test
+    public void finalStatusesCannotBeLeft() {
+        for (CompensatorStatus status : new CompensatorStatus[] {CompensatorStatus.Completed, CompensatorStatus.Compensated}) {
+            ParticipantState state = new ParticipantState(status);
+
+            assertTrue(state.isFinal());
+
+            for (CompensatorStatus next : CompensatorStatus.values()) {
+                if (next != status) {
+                    try {
+                        state.transitionTo(next);
+                        fail(status + " moved to " + next);
+                    } catch (IllegalStateException expected) {
+                        assertEquals(status, state.getStatus());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void onlyFailedParticipantsCanBeForgotten() {
+        ParticipantState state = new ParticipantState(CompensatorStatus.Compensating);
+
+        try {
+            state.forget();
+            fail("forgot a participant that had not failed");
+        } catch (IllegalStateException expected) {
+            assertFalse(state.isForgotten());
+        }
+
+        assertTrue(state.transitionTo(CompensatorStatus.FailedToCompensate));
+        assertFalse(state.isFinal());
+        assertTrue(state.forget());
+        assertFalse(state.forget());
+        assertTrue(state.isForgotten());
+        assertTrue(state.isFinal());
+        assertNull(state.getStatus());
+
+        try {
+            state.transitionTo(CompensatorStatus.Compensated);
+            fail("a forgotten participant changed status");
+        } catch (IllegalStateException expected) {
+            assertTrue(state.isForgotten());
+        }
+    }
+
+    @Test
+    public void setIgnoresTheStateModel() {
+        ParticipantState state = new ParticipantState(CompensatorStatus.Completed);
+
+        state.set(null);
+        assertTrue(state.isActive());
+        state.set(CompensatorStatus.Compensating);
+        assertTrue(state.transitionTo(CompensatorStatus.Compensated));
+    }
+
+    @Test
+    public void onlyOneRacingTransitionSucceeds() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int i = 0; i < 1000; i++) {
+                ParticipantState state = new ParticipantState(CompensatorStatus.Completing);
+                List<Callable<Boolean>> racers = new ArrayList<>();
+
+                for (int t = 0; t < threads; t++) {
+                    CompensatorStatus outcome = t % 2 == 0 ? CompensatorStatus.Completed : CompensatorStatus.FailedToComplete;
+
+                    racers.add(() -> state.compareAndSet(CompensatorStatus.Completing, outcome));
+                }
+
+                int winners = 0;
+
+                for (Future<Boolean> racer : executor.invokeAll(racers)) {
+                    winners += racer.get() ? 1 : 0;
+                }
+
+                assertEquals(1, winners);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
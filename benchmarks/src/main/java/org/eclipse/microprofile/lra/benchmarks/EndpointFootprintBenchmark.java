@@ -0,0 +1,172 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.eclipse.microprofile.lra.support.EndpointDictionary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by the participant records of a coordinator when each record holds
+ * the endpoints (the Link header) that the participant enlisted with and when it holds the id of
+ * the endpoints in an {@link EndpointDictionary}. Each invocation enlists a million participants,
+ * spread over a few participant resources, and the bytes retained per participant are reported as
+ * the secondary result <code>bytesPerParticipant</code>. The time taken to enlist the participants
+ * is reported as the primary result but includes the garbage collections used to measure the heap.
+ * JMH sums secondary results over the measurement iterations so only one is run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 1, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class EndpointFootprintBenchmark {
+    private static final String[] RELS = {"compensate", "complete", "forget", "leave", "status"};
+    private static final int RESOURCES = 4;
+    private static final int LRAS = 1000;
+
+    @Param({"1000000"})
+    private int participants;
+
+    private String[] linkHeaders;
+    private String[] lraIds;
+
+    /**
+     * The heap retained per participant record, in bytes, by the latest invocation
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerParticipant;
+    }
+
+    // a participant record holding the full endpoint URLs
+    private static final class UrlParticipant {
+        private final String lraId;
+        private final String endpoints;
+
+        private UrlParticipant(String lraId, String endpoints) {
+            this.lraId = lraId;
+            this.endpoints = endpoints;
+        }
+    }
+
+    // a participant record referring to its endpoints by id
+    private static final class InternedParticipant {
+        private final String lraId;
+        private final int endpoints;
+
+        private InternedParticipant(String lraId, int endpoints) {
+            this.lraId = lraId;
+            this.endpoints = endpoints;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        linkHeaders = new String[RESOURCES];
+        lraIds = new String[LRAS];
+
+        for (int i = 0; i < RESOURCES; i++) {
+            linkHeaders[i] = buildLinkHeader("http://localhost:8080/participant" + i + "/");
+        }
+
+        for (int i = 0; i < LRAS; i++) {
+            lraIds[i] = "http://localhost:8082/lra-coordinator/0_ffff7f000001_a4b7_5b7bb1d6_" + i;
+        }
+    }
+
+    @Benchmark
+    public Object[] urls(Footprint footprint) {
+        long before = usedHeap();
+        Object[] records = new Object[participants];
+
+        for (int i = 0; i < participants; i++) {
+            records[i] = new UrlParticipant(lraIds[i % LRAS], receive(i));
+        }
+
+        footprint.bytesPerParticipant = (usedHeap() - before) / participants;
+
+        return records;
+    }
+
+    @Benchmark
+    public Object[] dictionary(Footprint footprint) {
+        long before = usedHeap();
+        EndpointDictionary dictionary = new EndpointDictionary(RESOURCES);
+        Object[] records = new Object[participants];
+
+        for (int i = 0; i < participants; i++) {
+            records[i] = new InternedParticipant(lraIds[i % LRAS], dictionary.intern(receive(i)));
+        }
+
+        footprint.bytesPerParticipant = (usedHeap() - before) / participants;
+
+        return new Object[] {dictionary, records};
+    }
+
+    // a copy of a Link header as it would be read from a join request
+    private String receive(int participant) {
+        return new String(linkHeaders[participant % RESOURCES].toCharArray());
+    }
+
+    private static String buildLinkHeader(String uriPrefix) {
+        StringBuilder b = new StringBuilder();
+
+        for (String rel : RELS) {
+            Link link = Link.fromUri(uriPrefix + rel).title(rel + " URI").rel(rel).type(MediaType.TEXT_PLAIN).build();
+
+            if (b.length() != 0) {
+                b.append(',');
+            }
+
+            b.append(link);
+        }
+
+        return b.toString();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of LRA ids carried in headers and paths into URLs
+ * (as done by the TCK participant in multiLevelNestedActivity) and back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LRAIdBenchmark {
+    private String lraId = "http://localhost:8082/lra-coordinator/0_ffff7f000001_a4b7_5b7bb1d6_2";
+    private String encodedLraId;
+    private URL lraUrl;
+
+    @Setup
+    public void setup() throws UnsupportedEncodingException, MalformedURLException {
+        encodedLraId = URLEncoder.encode(lraId, "UTF-8");
+        lraUrl = new URL(lraId);
+    }
+
+    @Benchmark
+    public URL parse() throws MalformedURLException {
+        return new URL(lraId);
+    }
+
+    @Benchmark
+    public URL decodeAndParse() throws UnsupportedEncodingException, MalformedURLException {
+        return new URL(URLDecoder.decode(encodedLraId, "UTF-8"));
+    }
+
+    @Benchmark
+    public String encode() throws UnsupportedEncodingException {
+        return URLEncoder.encode(lraUrl.toExternalForm(), "UTF-8");
+    }
+}
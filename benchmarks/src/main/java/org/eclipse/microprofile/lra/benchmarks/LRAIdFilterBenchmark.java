@@ -0,0 +1,93 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.eclipse.microprofile.lra.support.LRAIdFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many lookups of unknown LRA ids per second are rejected by an {@link LRAIdFilter}
+ * and the cost of the filter for ids that are known. Looking the unknown ids up in an in-memory
+ * map of the same LRAs is included as a baseline: the filter only pays off in front of a store
+ * that is slower than such a map (for example, a persistent store).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LRAIdFilterBenchmark {
+    private static final String COORDINATOR = "http://localhost:8082/lra-coordinator/0_ffff7f000001_a4b7_5b7bb1d6_";
+    private static final int PROBES = 1024;
+
+    @Param({"1000000"})
+    private int lras;
+
+    private LRAIdFilter filter;
+    private Map<String, Object> store;
+    private String[] known;
+    private String[] unknown;
+    private int next;
+
+    @Setup
+    public void setup() {
+        filter = new LRAIdFilter(lras, 0.01);
+        store = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < lras; i++) {
+            String lraId = COORDINATOR + i;
+
+            filter.add(lraId);
+            store.put(lraId, lraId);
+        }
+
+        known = new String[PROBES];
+        unknown = new String[PROBES];
+
+        for (int i = 0; i < PROBES; i++) {
+            known[i] = COORDINATOR + (i * 7919 % lras);
+            unknown[i] = COORDINATOR + (lras + i);
+        }
+    }
+
+    @Benchmark
+    public boolean filterUnknown() {
+        return filter.mightContain(unknown[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Object storeUnknown() {
+        return store.get(unknown[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean filterKnown() {
+        return filter.mightContain(known[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.support.LRARecordStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares keeping the records of a million active LRAs on the heap (in a map, as a coordinator
+ * typically does) with keeping them in an {@link LRARecordStore}. The <code>fullGc</code> benchmark
+ * measures the pause of a full garbage collection, whose cost grows with the number of live objects
+ * that the collector has to trace, and <code>getRecord</code> measures the cost of looking a record up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LRARecordStoreBenchmark {
+    private static final String COORDINATOR = "http://localhost:8082/lra-coordinator/0_ffff7f000001_a4b7_5b7bb1d6_";
+    private static final int PROBES = 1024;
+
+    @Param({"1000000"})
+    private int lras;
+
+    @Param({"heap", "offHeap"})
+    private String store;
+
+    private Map<String, HeapRecord> heapRecords;
+    private LRARecordStore offHeapRecords;
+    private String[] probes;
+    private int next;
+
+    // the fields of an LRA record as a coordinator would hold them on the heap
+    private static final class HeapRecord {
+        private final String lraId;
+        private final String clientId;
+        private final boolean topLevel;
+        private final long startTime;
+        private volatile CompensatorStatus status;
+        private volatile boolean recovering;
+        private volatile long deadline;
+
+        private HeapRecord(String lraId, String clientId, boolean topLevel, long startTime, long deadline) {
+            this.lraId = lraId;
+            this.clientId = clientId;
+            this.topLevel = topLevel;
+            this.startTime = startTime;
+            this.deadline = deadline;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        long now = System.currentTimeMillis();
+
+        if ("heap".equals(store)) {
+            heapRecords = new ConcurrentHashMap<>(lras * 2);
+        } else {
+            offHeapRecords = new LRARecordStore(lras * 2, lras * (COORDINATOR.length() + 16));
+        }
+
+        for (int i = 0; i < lras; i++) {
+            String lraId = COORDINATOR + i;
+            String clientId = "client-" + (i % 100);
+
+            if (heapRecords != null) {
+                heapRecords.put(lraId, new HeapRecord(lraId, clientId, true, now, now + TimeUnit.DAYS.toMillis(1)));
+            } else {
+                offHeapRecords.add(lraId, clientId, true, now, now + TimeUnit.DAYS.toMillis(1));
+            }
+        }
+
+        probes = new String[PROBES];
+
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = COORDINATOR + (i * 7919 % lras);
+        }
+
+        System.gc();
+    }
+
+    @Benchmark
+    public void fullGc() {
+        System.gc();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object getRecord() {
+        String lraId = probes[next++ & (PROBES - 1)];
+
+        return heapRecords != null ? heapRecords.get(lraId) : offHeapRecords.get(lraId);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the Link header that a participant sends when it enlists
+ * (in the same way as the TCK participant does) and parsing it again (as a
+ * coordinator does when it receives a join request).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LinkHeaderBenchmark {
+    private static final String[] RELS = {"compensate", "complete", "forget", "leave", "status"};
+    private static final String URI_PREFIX = "http://localhost:8080/activities/";
+
+    private String linkHeader;
+
+    @Setup
+    public void setup() {
+        linkHeader = buildLinkHeader();
+    }
+
+    @Benchmark
+    public String buildLinkHeader() {
+        StringBuilder b = new StringBuilder();
+
+        for (String rel : RELS) {
+            Link link = Link.fromUri(URI_PREFIX + rel).title(rel + " URI").rel(rel).type(MediaType.TEXT_PLAIN).build();
+
+            if (b.length() != 0) {
+                b.append(',');
+            }
+
+            b.append(link);
+        }
+
+        return b.toString();
+    }
+
+    @Benchmark
+    public void parseLinkHeader(Blackhole blackhole) {
+        for (String link : linkHeader.split(",")) {
+            blackhole.consume(Link.valueOf(link).getUri());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.benchmarks;
+
+import org.eclipse.microprofile.lra.participant.LRAParticipant;
+import org.eclipse.microprofile.lra.participant.LRAParticipantDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving a participant in its persistent form (as done when it joins
+ * an LRA via {@link org.eclipse.microprofile.lra.participant.LRAManagement})
+ * and recreating it through an {@link LRAParticipantDeserializer} (as done
+ * during recovery).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParticipantSerializationBenchmark {
+    private final LRAParticipantDeserializer deserializer = new JavaDeserializer();
+
+    private URL lraId;
+    private OrderParticipant participant;
+    private byte[] recoveryState;
+
+    @Setup
+    public void setup() throws IOException {
+        lraId = new URL("http://localhost:8082/lra-coordinator/0_ffff7f000001_a4b7_5b7bb1d6_2");
+        participant = new OrderParticipant("order-42", 3);
+        recoveryState = serialize();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(participant);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public LRAParticipant deserialize() {
+        return deserializer.deserialize(lraId, recoveryState);
+    }
+
+    static class JavaDeserializer implements LRAParticipantDeserializer {
+        @Override
+        public LRAParticipant deserialize(URL lraId, byte[] recoveryState) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(recoveryState))) {
+                Object participant = in.readObject();
+
+                return participant instanceof LRAParticipant ? (LRAParticipant) participant : null;
+            } catch (IOException | ClassNotFoundException e) {
+                return null;
+            }
+        }
+    }
+
+    static class OrderParticipant implements LRAParticipant {
+        private static final long serialVersionUID = 1L;
+
+        private final String orderId;
+        private final int quantity;
+
+        OrderParticipant(String orderId, int quantity) {
+            this.orderId = orderId;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public Future<Void> completeWork(URL lraId) {
+            return null;
+        }
+
+        @Override
+        public Future<Void> compensateWork(URL lraId) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns small integer ids to the sets of endpoints that participants enlist with so that a
+ * coordinator's participant records can hold an id in place of the endpoint URLs (see
+ * {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_COORDINATOR_ENDPOINT_DICTIONARY_SIZE_KEY}).
+ * An endpoint set is identified by the value of the <code>Link</code> header that the participant
+ * enlisted with, listing its compensate, complete, forget, leave and status URLs. Every instance of a
+ * participant resource enlists with the same Link header so a coordinator managing a large number of
+ * LRAs typically only sees a handful of distinct endpoint sets.
+ *
+ * Ids are allocated consecutively starting at zero and an endpoint set keeps its id for the lifetime
+ * of the dictionary. Looking up an endpoint set that is already known, and looking up the endpoints
+ * for an id, do not lock. To bound the memory used if participants enlist with distinct URLs (for
+ * example if the URLs embed a participant specific path) the dictionary holds at most a given number
+ * of endpoint sets, after which {@link #intern(String)} returns {@link #NO_ID}, still without locking,
+ * and the caller keeps the URLs in the participant record itself.
+ */
+public class EndpointDictionary {
+    /**
+     * The value returned by {@link #intern(String)} when the dictionary is full
+     */
+    public static final int NO_ID = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private volatile String[] endpoints = new String[INITIAL_CAPACITY];
+    // set once every id has been allocated so that unknown endpoint sets are refused without locking
+    private volatile boolean full;
+    private int size;
+
+    /**
+     * Create a dictionary holding at most the given number of endpoint sets
+     *
+     * @param maxSize the maximum number of distinct endpoint sets that will be given an id
+     */
+    public EndpointDictionary(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("invalid dictionary size " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Look up the id of a set of participant endpoints allocating the next free id if the set is
+     * not yet known
+     *
+     * @param linkHeader the Link header value listing the participant endpoints
+     * @return the id of the endpoints or {@link #NO_ID} if they are not known and the dictionary is full
+     */
+    public int intern(String linkHeader) {
+        Integer id = ids.get(linkHeader);
+
+        if (id != null) {
+            return id;
+        }
+
+        return full ? NO_ID : add(linkHeader);
+    }
+
+    /**
+     * @param id an id returned by {@link #intern(String)}
+     * @return the Link header value listing the participant endpoints or null if the id is not in use
+     */
+    public String getEndpoints(int id) {
+        String[] current = endpoints;
+
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * @return the number of endpoint sets that have been given an id
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int add(String linkHeader) {
+        Integer id = ids.get(linkHeader);
+
+        if (id != null) {
+            return id;
+        } else if (size == maxSize) {
+            return NO_ID;
+        }
+
+        String[] current = endpoints;
+
+        if (size == current.length) {
+            current = Arrays.copyOf(current, Math.min(maxSize, current.length * 2));
+        }
+
+        current[size] = linkHeader;
+        // the volatile write publishes the entry before its id is made visible
+        endpoints = current;
+        ids.put(linkHeader, size);
+        full = size + 1 == maxSize;
+
+        return size++;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.spi.LRAClock;
+import org.eclipse.microprofile.lra.spi.LRAClockProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of requests by idempotency key (see
+ * {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_HTTP_IDEMPOTENCY_KEY_HEADER})
+ * for a window of time so that a coordinator can return the original result of a retried
+ * request instead of processing it again.
+ *
+ * Rather than tracking an expiry time per key, keys are held in two generations: new keys
+ * go into the current generation and once per window the current generation becomes the
+ * previous one and the previous one is discarded in its entirety. A key is therefore
+ * remembered for at least one window and at most two, expiry costs nothing per key and
+ * the index never holds more than two windows' worth of keys. Keys should be qualified
+ * by the operation (and, where relevant, the LRA) that they apply to.
+ *
+ * A request is processed outside the index: its key maps to the future outcome of the
+ * request, and callers presenting the same key while it is being processed wait for it.
+ * A request that fails, or has no result, is forgotten so that a later retry processes it
+ * again. Callers that were already waiting for it when it failed are not retries of the
+ * failed attempt but duplicates of it, so they receive the same exception (or null) rather
+ * than each processing the request themselves.
+ *
+ * @param <V> the type of the remembered results
+ */
+public class IdempotencyIndex<V> {
+    private final long windowNanos;
+    private final LRAClock clock;
+
+    // lookups share the lock so that a key is never checked in one generation and added to the next
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile ConcurrentMap<String, CompletableFuture<V>> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<String, CompletableFuture<V>> previous = new ConcurrentHashMap<>();
+    private volatile long generationStart;
+
+    /**
+     * Create an index that measures time using the {@link LRAClockProvider#getClock() shared clock}
+     *
+     * @param window the minimum time for which a key is remembered
+     * @param unit the unit that the window is expressed in
+     */
+    public IdempotencyIndex(long window, TimeUnit unit) {
+        this(window, unit, LRAClockProvider.getClock());
+    }
+
+    /**
+     * @param window the minimum time for which a key is remembered
+     * @param unit the unit that the window is expressed in
+     * @param clock the clock used to measure the window
+     */
+    public IdempotencyIndex(long window, TimeUnit unit, LRAClock clock) {
+        this.windowNanos = unit.toNanos(window);
+        this.clock = clock;
+        this.generationStart = clock.nanoTime();
+    }
+
+    /**
+     * Process a request unless a request with the same key has been processed within the window
+     *
+     * @param key the idempotency key of the request
+     * @param request processes the request and returns its result (it is called at most once
+     *                per key within the window, even if the same key is presented concurrently,
+     *                unless it fails or returns null)
+     * @return the result of processing the request or of the earlier request with the same key
+     * @throws RuntimeException the exception thrown by the request, or by a concurrent request
+     *         with the same key that this caller waited for
+     */
+    public V computeIfAbsent(String key, Supplier<V> request) {
+        rotate();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> theirs;
+        ConcurrentMap<String, CompletableFuture<V>> generation;
+
+        lock.readLock().lock();
+
+        try {
+            generation = current;
+            theirs = previous.get(key);
+
+            if (theirs == null) {
+                theirs = generation.putIfAbsent(key, mine);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (theirs != null) {
+            try {
+                return theirs.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw e;
+            }
+        }
+
+        try {
+            V result = request.get();
+
+            if (result == null) {
+                generation.remove(key, mine);
+            }
+
+            mine.complete(result);
+
+            return result;
+        } catch (RuntimeException | Error e) {
+            generation.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @param key the idempotency key of a request
+     * @return the result of the request with this key or null if it is not remembered
+     *         (or is still being processed)
+     */
+    public V get(String key) {
+        rotate();
+
+        lock.readLock().lock();
+
+        try {
+            V result = completed(current.get(key));
+
+            return result != null ? result : completed(previous.get(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of keys currently remembered
+     */
+    public int size() {
+        rotate();
+
+        return current.size() + previous.size();
+    }
+
+    private void rotate() {
+        long now = clock.nanoTime();
+
+        if (now - generationStart < windowNanos) {
+            return;
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            long elapsed = now - generationStart;
+
+            if (elapsed < windowNanos) {
+                return;
+            }
+
+            // if more than two windows have passed every key has expired
+            previous = elapsed < 2 * windowNanos ? current : new ConcurrentHashMap<>();
+            current = new ConcurrentHashMap<>();
+            generationStart = now;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <V> V completed(CompletableFuture<V> outcome) {
+        return outcome == null || !outcome.isDone() || outcome.isCompletedExceptionally() ? null : outcome.join();
+    }
+}
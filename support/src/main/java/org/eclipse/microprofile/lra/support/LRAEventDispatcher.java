@@ -0,0 +1,218 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.spi.LRAEvent;
+import org.eclipse.microprofile.lra.spi.LRAEventListener;
+import org.eclipse.microprofile.lra.spi.LRAMetricNames;
+import org.eclipse.microprofile.lra.spi.LRAMetricsProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Delivers {@link LRAEvent}s to {@link LRAEventListener}s asynchronously. Events are
+ * published into a fixed size ring buffer and delivered, in order, by a single daemon
+ * thread. When the buffer is full the {@link OverflowPolicy} decides whether the publisher
+ * waits or the event is dropped, so listeners can never cause unbounded memory growth and,
+ * with {@link OverflowPolicy#DROP}, can never slow down LRA processing. A dispatcher without
+ * listeners does not start a thread and ignores the events published to it.
+ */
+public class LRAEventDispatcher implements AutoCloseable {
+    /**
+     * What to do with an event that is published while the buffer is full (configured by
+     * {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_EVENTS_OVERFLOW_POLICY_KEY})
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the event (the number of dropped events is available from {@link #getDroppedCount()}
+         * and is also reported as {@link LRAMetricNames#EVENTS_DROPPED})
+         */
+        DROP,
+        /**
+         * Make the publisher wait until there is room in the buffer
+         */
+        BLOCK,
+    }
+
+    // published by close() to tell the dispatcher thread to stop once it has delivered the events before it
+    private static final LRAEvent SHUTDOWN = new LRAEvent(null, null, null, 0L);
+
+    private final BlockingQueue<LRAEvent> buffer;
+    private final OverflowPolicy policy;
+    private final List<LRAEventListener> listeners;
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    // null if there are no listeners
+    private final Thread dispatcher;
+    // publishers share the lock so that close() cannot queue SHUTDOWN between their check and their enqueue
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean closed;
+
+    /**
+     * Create a dispatcher for the listeners registered with the {@link ServiceLoader} mechanism
+     *
+     * @param bufferSize the number of events that can be waiting for delivery
+     * @param policy what to do when the buffer is full
+     */
+    public LRAEventDispatcher(int bufferSize, OverflowPolicy policy) {
+        this(bufferSize, policy, loadListeners());
+    }
+
+    /**
+     * @param bufferSize the number of events that can be waiting for delivery (see
+     *                   {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_EVENTS_BUFFER_SIZE_KEY})
+     * @param policy what to do when the buffer is full
+     * @param listeners the listeners to deliver events to
+     */
+    public LRAEventDispatcher(int bufferSize, OverflowPolicy policy, List<LRAEventListener> listeners) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.policy = policy;
+        this.listeners = new ArrayList<>(listeners);
+
+        if (this.listeners.isEmpty()) {
+            this.dispatcher = null;
+        } else {
+            this.dispatcher = new Thread(this::dispatch, "lra-events");
+
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Publish an event for delivery to the listeners
+     *
+     * @param event the event
+     * @return true if the event was accepted for delivery or false if it was dropped
+     *         (because the buffer was full or the dispatcher has been closed)
+     */
+    public boolean publish(LRAEvent event) {
+        if (listeners.isEmpty()) {
+            return false;
+        }
+
+        lock.readLock().lock();
+
+        try {
+            // an event published after close() is dropped like one that does not fit in the buffer
+            if (!closed) {
+                if (policy == OverflowPolicy.BLOCK) {
+                    try {
+                        buffer.put(event);
+
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (buffer.offer(event)) {
+                    return true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        dropped.incrementAndGet();
+        LRAMetricsProvider.getMetrics().counter(LRAMetricNames.EVENTS_DROPPED);
+
+        return false;
+    }
+
+    /**
+     * @return the number of events that were published but not delivered
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of times that a listener threw an exception while an event was being
+     *         delivered to it (the event is still delivered to the other listeners)
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Stop accepting events and wait for the events that have already been accepted to be delivered.
+     * Every event for which {@link #publish(LRAEvent)} returned true is delivered before this method returns.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+
+        try {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (dispatcher == null) {
+            return;
+        }
+
+        try {
+            buffer.put(SHUTDOWN);
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            dispatcher.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            for (LRAEvent event = buffer.take(); event != SHUTDOWN; event = buffer.take()) {
+                for (LRAEventListener listener : listeners) {
+                    try {
+                        listener.onEvent(event);
+                    } catch (Throwable t) {
+                        // a failing listener must not stop events being delivered to the others
+                        failed.incrementAndGet();
+                        LRAMetricsProvider.getMetrics().counter(LRAMetricNames.EVENT_LISTENER_FAILURES);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<LRAEventListener> loadListeners() {
+        List<LRAEventListener> loaded = new ArrayList<>();
+
+        ServiceLoader.load(LRAEventListener.class).forEach(loaded::add);
+
+        return loaded;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A probabilistic set of LRA ids that a coordinator can consult before looking an LRA up in
+ * its store (see {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_COORDINATOR_ID_FILTER_FPP_KEY}).
+ * If {@link #mightContain(String)} returns false the id is certainly unknown and the request
+ * can be rejected with <code>404 Not Found</code> straight away; if it returns true the id is
+ * probably known and the store must be consulted.
+ *
+ * Since LRAs end, the filter is a counting Bloom filter: each position holds a four bit
+ * counter (sixteen to a long) that is incremented when an id is added and decremented when
+ * it is removed. A counter that reaches its maximum is never changed again, which can only
+ * make false positives more likely, never cause a false negative. The filter is blocked: all
+ * of the counters for an id lie in the same 64 byte block (about a cache line) so a lookup
+ * touches very little memory. Blocking loads the counters less evenly so the filter uses half
+ * as many counters again as an unblocked one would to keep to the requested false positive
+ * probability. All operations are lock free and {@link #mightContain(String)} only performs
+ * volatile reads.
+ *
+ * Ids must only be removed if they were added, and should only be removed once the
+ * coordinator no longer answers queries about the LRA at all (ie after any tombstone
+ * for it has expired). Ids are identified by the same 64 bit hash as in a {@link TombstoneCache},
+ * so a coordinator can remove them from the cache's eviction listener with {@link #remove(long)}.
+ */
+public class LRAIdFilter {
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int COUNTERS_PER_BLOCK = WORDS_PER_BLOCK * COUNTERS_PER_WORD;
+    private static final double BLOCKING_OVERHEAD = 1.5;
+    private static final int POSITION_BITS = Integer.numberOfTrailingZeros(COUNTERS_PER_BLOCK);
+    private static final int POSITIONS_PER_HASH = Long.SIZE / POSITION_BITS;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray counters;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * Create a filter sized so that, when it holds the expected number of ids, the probability
+     * that an unknown id is reported as possibly known is about the given false positive probability
+     *
+     * @param expectedIds the number of ids that the filter is expected to hold at any one time
+     * @param falsePositiveProbability the acceptable false positive probability (between 0 and 1)
+     */
+    public LRAIdFilter(long expectedIds, double falsePositiveProbability) {
+        if (expectedIds <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("invalid filter size or false positive probability");
+        }
+
+        double bitsPerId = -Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+        // the counters of a blocked filter are less evenly loaded so it needs more of them for the same probability
+        long blockCount = ((long) Math.ceil(expectedIds * bitsPerId * BLOCKING_OVERHEAD) + COUNTERS_PER_BLOCK - 1)
+                / COUNTERS_PER_BLOCK;
+
+        if (blockCount * WORDS_PER_BLOCK > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("filter for " + expectedIds + " ids is too large");
+        }
+
+        this.blocks = (int) blockCount;
+        this.counters = new AtomicLongArray(blocks * WORDS_PER_BLOCK);
+        this.hashes = Math.max(1, (int) Math.round(bitsPerId * Math.log(2)));
+    }
+
+    /**
+     * Add an id to the filter
+     *
+     * @param lraId the id of an LRA that the coordinator now knows about
+     */
+    public void add(String lraId) {
+        update(lraId, 1);
+    }
+
+    /**
+     * Remove an id that was previously added to the filter. If the filter certainly does not contain
+     * the id (for example because it has already been removed) no counter is changed and false is
+     * returned. A true result does not prove that the id was added: removing an id that was never
+     * added, or removing one twice, goes undetected while other ids keep all of its counters above
+     * zero, and then decrements their counters instead, which can make the filter report those ids
+     * as unknown.
+     *
+     * @param lraId the id of an LRA that the coordinator has forgotten
+     * @return false if the id was certainly not in the filter, true if it was probably removed
+     */
+    public boolean remove(String lraId) {
+        return remove(TombstoneCache.hash(lraId));
+    }
+
+    /**
+     * Remove an id that was previously added to the filter given only its hash (for example,
+     * from the eviction listener of a {@link TombstoneCache}), see {@link #remove(String)}
+     *
+     * @param idHash the {@link TombstoneCache#hash(String) hash} of the id of an LRA that the
+     *               coordinator has forgotten
+     * @return false if the id was certainly not in the filter, true if it was probably removed
+     */
+    public boolean remove(long idHash) {
+        long seed = mix(idHash);
+
+        if (!contains(seed)) {
+            return false;
+        }
+
+        update(seed, -1);
+
+        return true;
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @return false if the id is certainly not in the filter or true if it probably is
+     */
+    public boolean mightContain(String lraId) {
+        return contains(mix(TombstoneCache.hash(lraId)));
+    }
+
+    private boolean contains(long seed) {
+        long block = block(seed);
+        long bits = 0;
+
+        for (int i = 0; i < hashes; i++) {
+            if (i % POSITIONS_PER_HASH == 0) {
+                seed += GOLDEN_GAMMA;
+                bits = mix(seed);
+            }
+
+            long position = block + (bits & (COUNTERS_PER_BLOCK - 1));
+
+            if (counter(counters.get(word(position)), position) == 0) {
+                return false;
+            }
+
+            bits >>>= POSITION_BITS;
+        }
+
+        return true;
+    }
+
+    private void update(String lraId, int delta) {
+        update(mix(TombstoneCache.hash(lraId)), delta);
+    }
+
+    // the positions within the block are taken from successive chunks of a stream of hashes seeded by the id
+    private void update(long seed, int delta) {
+        long block = block(seed);
+        long bits = 0;
+
+        for (int i = 0; i < hashes; i++) {
+            if (i % POSITIONS_PER_HASH == 0) {
+                seed += GOLDEN_GAMMA;
+                bits = mix(seed);
+            }
+
+            updateCounter(block + (bits & (COUNTERS_PER_BLOCK - 1)), delta);
+            bits >>>= POSITION_BITS;
+        }
+    }
+
+    private void updateCounter(long position, int delta) {
+        int word = word(position);
+        int shift = shift(position);
+
+        while (true) {
+            long current = counters.get(word);
+            long count = (current >>> shift) & COUNTER_MAX;
+
+            // saturated counters are left alone since the number of ids they count is no longer known (and a
+            // counter can only be zero here if a concurrent remove of the same id emptied it after the check)
+            if (count == COUNTER_MAX || (count == 0 && delta < 0)) {
+                return;
+            }
+
+            long updated = (current & ~(COUNTER_MAX << shift)) | ((count + delta) << shift);
+
+            if (counters.compareAndSet(word, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    // the position of the first counter of the block holding the counters for an id
+    private long block(long hash) {
+        return (long) Math.floorMod((int) (hash >>> 32), blocks) * COUNTERS_PER_BLOCK;
+    }
+
+    private static int word(long position) {
+        return (int) (position / COUNTERS_PER_WORD);
+    }
+
+    private static int shift(long position) {
+        return (int) (position % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    private static long counter(long word, long position) {
+        return (word >>> shift(position)) & COUNTER_MAX;
+    }
+
+    // the SplitMix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,538 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.client.LRAInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Holds the records of the LRAs known to a coordinator outside of the Java heap so that a large
+ * number of long running LRAs does not add to the live set that the garbage collector has to trace
+ * (see {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_COORDINATOR_RECORD_STORE_CAPACITY_KEY}).
+ *
+ * The records are fixed size slots in a direct buffer that form an open addressing hash table (with
+ * linear probing) keyed by LRA id. A slot holds the status, flags, start time and deadline of an LRA
+ * as primitives together with the position of its LRA id and client id, which are kept as UTF-8 bytes
+ * in a second direct buffer (the arena). Adding an LRA only allocates space in the arena; the space
+ * used by removed LRAs is reclaimed when the arena fills by sliding the remaining ids down to the
+ * start of the arena. Removing an LRA moves back any later records in its probe sequence rather
+ * than leaving a marker in its slot, so lookups do not slow down as LRAs come and go. Lookups
+ * return an on-heap copy of the record, which is short lived.
+ *
+ * Both buffers are allocated when the store is created: a record takes 32 bytes plus the length
+ * of its ids in the arena, and the number of slots should be comfortably larger (say, twice) the
+ * number of LRAs that the coordinator expects to know about at any one time.
+ */
+public class LRARecordStore {
+    private static final int SLOT_SIZE = 32;
+
+    // the layout of a slot
+    private static final int STATE_OFFSET = 0;
+    private static final int STATUS_OFFSET = 1;
+    private static final int FLAGS_OFFSET = 2;
+    private static final int HASH_OFFSET = 4;
+    private static final int ARENA_OFFSET = 8;
+    private static final int ID_LENGTH_OFFSET = 12;
+    private static final int CLIENT_LENGTH_OFFSET = 14;
+    private static final int START_TIME_OFFSET = 16;
+    private static final int DEADLINE_OFFSET = 24;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+
+    private static final byte TOP_LEVEL = 1;
+    private static final byte RECOVERING = 2;
+
+    // the status of an active LRA, other statuses are stored as their ordinal plus one
+    private static final byte ACTIVE = 0;
+    private static final CompensatorStatus[] STATUSES = CompensatorStatus.values();
+
+    private final ByteBuffer slots;
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ByteBuffer arena;
+    private int arenaTop;
+    private int garbage;
+    private int size;
+
+    /**
+     * A copy of the record of an LRA
+     */
+    public static final class Record implements LRAInfo {
+        private final String lraId;
+        private final String clientId;
+        private final CompensatorStatus status;
+        private final boolean topLevel;
+        private final boolean recovering;
+        private final long startTime;
+        private final long deadline;
+
+        private Record(String lraId, String clientId, CompensatorStatus status, boolean topLevel,
+                       boolean recovering, long startTime, long deadline) {
+            this.lraId = lraId;
+            this.clientId = clientId;
+            this.status = status;
+            this.topLevel = topLevel;
+            this.recovering = recovering;
+            this.startTime = startTime;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public String getLraId() {
+            return lraId;
+        }
+
+        @Override
+        public String getClientId() {
+            return clientId;
+        }
+
+        /**
+         * @return the status of the LRA or null if it is active
+         */
+        public CompensatorStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return status == CompensatorStatus.Completed;
+        }
+
+        @Override
+        public boolean isCompensated() {
+            return status == CompensatorStatus.Compensated;
+        }
+
+        @Override
+        public boolean isRecovering() {
+            return recovering;
+        }
+
+        @Override
+        public boolean isActive() {
+            return status == null;
+        }
+
+        @Override
+        public boolean isTopLevel() {
+            return topLevel;
+        }
+
+        /**
+         * @return the time at which the LRA started
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * @return the time at which the LRA times out or 0 if it has no time limit
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    /**
+     * Create a store, allocating all of the memory that it will use
+     *
+     * @param capacity the number of LRA records that the store can hold
+     * @param arenaSize the number of bytes available for the (UTF-8 encoded) LRA and client ids
+     */
+    public LRARecordStore(int capacity, int arenaSize) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / SLOT_SIZE || arenaSize <= 0) {
+            throw new IllegalArgumentException("invalid record store capacity or arena size");
+        }
+
+        this.capacity = capacity;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        this.arena = ByteBuffer.allocateDirect(arenaSize);
+    }
+
+    /**
+     * Add the record of an active LRA
+     *
+     * @param lraId the id of the LRA
+     * @param clientId the client id of the LRA (may be null)
+     * @param topLevel true if the LRA is not nested
+     * @param startTime the time at which the LRA started
+     * @param deadline the time at which the LRA times out or 0 if it has no time limit
+     * @return false if the store already holds a record for the LRA, in which case it is left unchanged
+     * @throws IllegalStateException if there is no room for the record
+     */
+    public boolean add(String lraId, String clientId, boolean topLevel, long startTime, long deadline) {
+        byte[] id = encode(lraId);
+        byte[] client = clientId == null ? null : encode(clientId);
+        int hash = lraId.hashCode();
+
+        lock.writeLock().lock();
+
+        try {
+            int index = find(id, hash);
+
+            if (index >= 0) {
+                return false;
+            } else if (index == -(capacity + 1)) {
+                throw new IllegalStateException("the LRA record store is full (capacity " + capacity + ")");
+            }
+
+            int offset = allocate(id.length + (client == null ? 0 : client.length));
+            int pos = slot(-index - 1);
+
+            put(offset, id);
+
+            if (client != null) {
+                put(offset + id.length, client);
+            }
+
+            slots.put(pos + STATUS_OFFSET, ACTIVE);
+            slots.put(pos + FLAGS_OFFSET, topLevel ? TOP_LEVEL : 0);
+            slots.putInt(pos + HASH_OFFSET, hash);
+            slots.putInt(pos + ARENA_OFFSET, offset);
+            slots.putShort(pos + ID_LENGTH_OFFSET, (short) id.length);
+            slots.putShort(pos + CLIENT_LENGTH_OFFSET, (short) (client == null ? -1 : client.length));
+            slots.putLong(pos + START_TIME_OFFSET, startTime);
+            slots.putLong(pos + DEADLINE_OFFSET, deadline);
+            slots.put(pos + STATE_OFFSET, USED);
+            size++;
+
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @return a copy of the record of the LRA or null if the store does not hold one
+     */
+    public Record get(String lraId) {
+        byte[] id = encode(lraId);
+
+        lock.readLock().lock();
+
+        try {
+            int index = find(id, lraId.hashCode());
+
+            return index < 0 ? null : read(slot(index), lraId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @param status the new status of the LRA or null if it is active
+     * @return false if the store does not hold a record for the LRA
+     */
+    public boolean setStatus(String lraId, CompensatorStatus status) {
+        return update(lraId, pos -> slots.put(pos + STATUS_OFFSET, status == null ? ACTIVE : (byte) (status.ordinal() + 1)));
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @param recovering true if the coordinator is recovering the LRA
+     * @return false if the store does not hold a record for the LRA
+     */
+    public boolean setRecovering(String lraId, boolean recovering) {
+        return update(lraId, pos -> {
+            byte flags = slots.get(pos + FLAGS_OFFSET);
+
+            slots.put(pos + FLAGS_OFFSET, (byte) (recovering ? flags | RECOVERING : flags & ~RECOVERING));
+        });
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @param deadline the time at which the LRA times out or 0 if it has no time limit
+     * @return false if the store does not hold a record for the LRA
+     */
+    public boolean setDeadline(String lraId, long deadline) {
+        return update(lraId, pos -> slots.putLong(pos + DEADLINE_OFFSET, deadline));
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @return false if the store did not hold a record for the LRA
+     */
+    public boolean remove(String lraId) {
+        byte[] id = encode(lraId);
+
+        lock.writeLock().lock();
+
+        try {
+            int index = find(id, lraId.hashCode());
+
+            if (index < 0) {
+                return false;
+            }
+
+            garbage += idsLength(slot(index));
+            size--;
+
+            // shift back any records that probed past the one that was removed
+            int hole = index;
+
+            for (int i = next(hole); i != hole && slots.get(slot(i) + STATE_OFFSET) != EMPTY; i = next(i)) {
+                if (distance(home(slots.getInt(slot(i) + HASH_OFFSET)), i) >= distance(hole, i)) {
+                    for (int b = 0; b < SLOT_SIZE; b += Long.BYTES) {
+                        slots.putLong(slot(hole) + b, slots.getLong(slot(i) + b));
+                    }
+
+                    hole = i;
+                }
+            }
+
+            slots.put(slot(hole) + STATE_OFFSET, EMPTY);
+
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the records that match a filter, for example to list the active or the recovering LRAs
+     *
+     * @param filter the records to return
+     * @return copies of the matching records in no particular order
+     */
+    public List<Record> list(Predicate<? super Record> filter) {
+        List<Record> records = new ArrayList<>();
+
+        lock.readLock().lock();
+
+        try {
+            for (int i = 0; i < capacity; i++) {
+                int pos = slot(i);
+
+                if (slots.get(pos + STATE_OFFSET) == USED) {
+                    Record record = read(pos, null);
+
+                    if (filter.test(record)) {
+                        records.add(record);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return records;
+    }
+
+    /**
+     * @return the number of LRA records in the store
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean update(String lraId, IntConsumer update) {
+        byte[] id = encode(lraId);
+
+        lock.writeLock().lock();
+
+        try {
+            int index = find(id, lraId.hashCode());
+
+            if (index < 0) {
+                return false;
+            }
+
+            update.accept(slot(index));
+
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Record read(int pos, String lraId) {
+        int offset = slots.getInt(pos + ARENA_OFFSET);
+        int idLength = slots.getShort(pos + ID_LENGTH_OFFSET);
+        int clientLength = slots.getShort(pos + CLIENT_LENGTH_OFFSET);
+        byte status = slots.get(pos + STATUS_OFFSET);
+        byte flags = slots.get(pos + FLAGS_OFFSET);
+
+        return new Record(lraId != null ? lraId : decode(offset, idLength),
+                clientLength < 0 ? null : decode(offset + idLength, clientLength),
+                status == ACTIVE ? null : STATUSES[status - 1],
+                (flags & TOP_LEVEL) != 0,
+                (flags & RECOVERING) != 0,
+                slots.getLong(pos + START_TIME_OFFSET),
+                slots.getLong(pos + DEADLINE_OFFSET));
+    }
+
+    /*
+     * Probe for an id returning its slot index if it is present. Otherwise return -(index + 1)
+     * where index is the slot into which the id should be inserted, or -(capacity + 1) if the
+     * store is full.
+     */
+    private int find(byte[] id, int hash) {
+        int index = home(hash);
+
+        for (int probes = 0; probes < capacity; probes++, index = next(index)) {
+            int pos = slot(index);
+
+            if (slots.get(pos + STATE_OFFSET) == EMPTY) {
+                return -(index + 1);
+            } else if (matches(pos, id, hash)) {
+                return index;
+            }
+        }
+
+        return -(capacity + 1);
+    }
+
+    private boolean matches(int pos, byte[] id, int hash) {
+        if (slots.getInt(pos + HASH_OFFSET) != hash || slots.getShort(pos + ID_LENGTH_OFFSET) != id.length) {
+            return false;
+        }
+
+        int offset = slots.getInt(pos + ARENA_OFFSET);
+
+        for (int i = 0; i < id.length; i++) {
+            if (arena.get(offset + i) != id[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // reserve space in the arena, first reclaiming the space of removed records if it is full
+    private int allocate(int length) {
+        if (arenaTop + length > arena.capacity() && garbage != 0) {
+            compact();
+        }
+
+        if (arenaTop + length > arena.capacity()) {
+            throw new IllegalStateException("the LRA record store arena is full (size " + arena.capacity() + ")");
+        }
+
+        int offset = arenaTop;
+
+        arenaTop += length;
+
+        return offset;
+    }
+
+    // slide the ids of the remaining records down, in arena order, over the space of removed records
+    private void compact() {
+        // each entry is the arena offset of a record's ids in the high half and its slot index in the low half
+        long[] live = new long[size];
+        int n = 0;
+
+        for (int i = 0; i < capacity; i++) {
+            if (slots.get(slot(i) + STATE_OFFSET) == USED) {
+                live[n++] = (long) slots.getInt(slot(i) + ARENA_OFFSET) << 32 | i;
+            }
+        }
+
+        Arrays.sort(live);
+
+        int top = 0;
+
+        for (long entry : live) {
+            int pos = slot((int) entry);
+            int offset = (int) (entry >>> 32);
+            int length = idsLength(pos);
+
+            // the destination never lies above the source so copying forwards is safe
+            for (int i = 0; i < length; i++) {
+                arena.put(top + i, arena.get(offset + i));
+            }
+
+            slots.putInt(pos + ARENA_OFFSET, top);
+            top += length;
+        }
+
+        arenaTop = top;
+        garbage = 0;
+    }
+
+    private int idsLength(int pos) {
+        return slots.getShort(pos + ID_LENGTH_OFFSET) + Math.max(0, slots.getShort(pos + CLIENT_LENGTH_OFFSET));
+    }
+
+    private void put(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            arena.put(offset + i, bytes[i]);
+        }
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = arena.get(offset + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("id is longer than " + Short.MAX_VALUE + " bytes");
+        }
+
+        return bytes;
+    }
+
+    private int home(int hash) {
+        return Math.floorMod(hash ^ (hash >>> 16), capacity);
+    }
+
+    // the number of probes from one slot to another
+    private int distance(int from, int to) {
+        return to >= from ? to - from : to + capacity - from;
+    }
+
+    private int next(int index) {
+        return index + 1 == capacity ? 0 : index + 1;
+    }
+
+    private int slot(int index) {
+        return index * SLOT_SIZE;
+    }
+}
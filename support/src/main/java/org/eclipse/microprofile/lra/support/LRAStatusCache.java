@@ -0,0 +1,167 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.spi.LRAMetricNames;
+import org.eclipse.microprofile.lra.spi.LRAMetricsProvider;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reduces the number of status queries that an {@link org.eclipse.microprofile.lra.client.LRAClient} implementation sends to
+ * a coordinator (see {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_CLIENT_STATUS_CACHE_SIZE_KEY}):
+ *
+ * <ul>
+ *     <li>concurrent identical queries (for the same LRA) are coalesced so that only one
+ *     request is in flight at a time and every caller receives its outcome;</li>
+ *     <li>the terminal outcomes {@link CompensatorStatus#Completed} and
+ *     {@link CompensatorStatus#Compensated}, which never change, are remembered in a
+ *     bounded, least recently used, cache and answered without a request.</li>
+ * </ul>
+ *
+ * LRAs are identified by the external form of their ids, since comparing {@link URL}s may
+ * resolve their host names. Queries answered without a request are reported as
+ * {@link LRAMetricNames#STATUS_CACHE_HITS} and {@link LRAMetricNames#STATUS_QUERIES_COALESCED}.
+ */
+public class LRAStatusCache {
+    private final Map<String, CompensatorStatus> terminal;
+    private final ConcurrentMap<String, CompletableFuture<Optional<CompensatorStatus>>> statusQueries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> activeQueries = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxTerminal the maximum number of terminal outcomes to remember
+     */
+    public LRAStatusCache(int maxTerminal) {
+        this.terminal = Collections.synchronizedMap(new LinkedHashMap<String, CompensatorStatus>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompensatorStatus> eldest) {
+                return size() > maxTerminal;
+            }
+        });
+    }
+
+    /**
+     * Lookup the status of an LRA (see {@link org.eclipse.microprofile.lra.client.LRAClient#getStatus(URL)})
+     *
+     * @param lraId the LRA whose status is being requested
+     * @param query sends the status request to the coordinator
+     * @return the status or empty if the LRA is still active
+     */
+    public Optional<CompensatorStatus> getStatus(URL lraId, Function<URL, Optional<CompensatorStatus>> query) {
+        CompensatorStatus known = terminal.get(lraId.toExternalForm());
+
+        if (known != null) {
+            LRAMetricsProvider.getMetrics().counter(LRAMetricNames.STATUS_CACHE_HITS);
+
+            return Optional.of(known);
+        }
+
+        Optional<CompensatorStatus> status = coalesce(statusQueries, lraId, query);
+
+        status.ifPresent(s -> remember(lraId, s));
+
+        return status;
+    }
+
+    /**
+     * Indicate whether an LRA is active (see {@link org.eclipse.microprofile.lra.client.LRAClient#isActiveLRA(URL)})
+     *
+     * @param lraId the LRA being queried
+     * @param query sends the request to the coordinator
+     * @return whether or not the LRA is active
+     */
+    public boolean isActive(URL lraId, Predicate<URL> query) {
+        if (terminal.containsKey(lraId.toExternalForm())) {
+            LRAMetricsProvider.getMetrics().counter(LRAMetricNames.STATUS_CACHE_HITS);
+
+            return false;
+        }
+
+        return coalesce(activeQueries, lraId, query::test);
+    }
+
+    /**
+     * Record the outcome of an LRA that the client has learnt of in some other way (for
+     * example in the response to a request to close or cancel it)
+     *
+     * @param lraId the LRA
+     * @param status its status
+     */
+    public void remember(URL lraId, CompensatorStatus status) {
+        if (status == CompensatorStatus.Completed || status == CompensatorStatus.Compensated) {
+            terminal.put(lraId.toExternalForm(), status);
+        }
+    }
+
+    /**
+     * @return the number of terminal outcomes currently remembered
+     */
+    public int size() {
+        return terminal.size();
+    }
+
+    // run the query unless an identical one is already in flight, in which case wait for its outcome
+    private static <V> V coalesce(ConcurrentMap<String, CompletableFuture<V>> inFlight, URL lraId, Function<URL, V> query) {
+        String key = lraId.toExternalForm();
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> theirs = inFlight.putIfAbsent(key, mine);
+
+        if (theirs != null) {
+            LRAMetricsProvider.getMetrics().counter(LRAMetricNames.STATUS_QUERIES_COALESCED);
+
+            try {
+                return theirs.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw e;
+            }
+        }
+
+        try {
+            V result = query.apply(lraId);
+
+            mine.complete(result);
+
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
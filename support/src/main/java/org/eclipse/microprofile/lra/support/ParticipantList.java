@@ -0,0 +1,145 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The participants enlisted with a single LRA, for coordinators that must accept many concurrent
+ * requests to join the same LRA (for example, when a workflow fans out to hundreds of services).
+ *
+ * Enlisting does not lock: the participant is claimed in an index keyed by its participant id
+ * (so that it is enlisted at most once) and then pushed, with a compare and set, onto the head of a
+ * linked list. The order in which the pushes succeed is the enlistment order, so walking the list
+ * from its head visits the participants in the reverse order of enlistment, which is the order in
+ * which they are asked to compensate. A participant that leaves is removed from the index but stays
+ * linked (and is skipped) until the LRA, and with it the list, is discarded.
+ *
+ * Since the index is claimed before the node is linked, while {@link #enlist} is running
+ * {@link #get} and {@link #size} may already report the participant although
+ * {@link #inReverseOrder()} does not list it yet. Once enlist has returned the participant is listed.
+ * Claiming the index first means that a duplicate enlistment (such as a retried join) never links
+ * a node, so the list only grows with the number of distinct enlistments.
+ *
+ * @param <P> the type of the coordinator's participant records
+ */
+public class ParticipantList<P> {
+    private final Map<String, Node<P>> index = new ConcurrentHashMap<>();
+    private final AtomicReference<Node<P>> head = new AtomicReference<>();
+
+    private static final class Node<P> {
+        private final String participantId;
+        private final P participant;
+        private Node<P> next;
+
+        private Node(String participantId, P participant) {
+            this.participantId = participantId;
+            this.participant = participant;
+        }
+    }
+
+    /**
+     * Enlist a participant unless a participant with the same id is already enlisted
+     *
+     * @param participantId the id of the participant, such as its compensate URL or its recovery URL
+     * @param participant the record of the participant
+     * @return null if the participant was enlisted or the record of the participant that is
+     * already enlisted with the same id
+     */
+    public P enlist(String participantId, P participant) {
+        Node<P> node = new Node<>(participantId, participant);
+        Node<P> existing = index.putIfAbsent(participantId, node);
+
+        if (existing != null) {
+            return existing.participant;
+        }
+
+        Node<P> first;
+
+        do {
+            first = head.get();
+            node.next = first;
+        } while (!head.compareAndSet(first, node));
+
+        return null;
+    }
+
+    /**
+     * Remove a participant from the LRA
+     *
+     * @param participantId the id that the participant was enlisted with
+     * @return the record of the participant or null if no participant with that id is enlisted
+     */
+    public P leave(String participantId) {
+        Node<P> node = index.remove(participantId);
+
+        return node == null ? null : node.participant;
+    }
+
+    /**
+     * @param participantId the id that a participant was enlisted with
+     * @return the record of the participant or null if no participant with that id is enlisted
+     */
+    public P get(String participantId) {
+        Node<P> node = index.get(participantId);
+
+        return node == null ? null : node.participant;
+    }
+
+    /**
+     * @return the enlisted participants, most recently enlisted first (the order in which they compensate)
+     */
+    public List<P> inReverseOrder() {
+        List<P> participants = new ArrayList<>();
+
+        for (Node<P> node = head.get(); node != null; node = node.next) {
+            // skip participants that have left, including those that have since enlisted again (with a newer node)
+            if (index.get(node.participantId) == node) {
+                participants.add(node.participant);
+            }
+        }
+
+        return participants;
+    }
+
+    /**
+     * @return the enlisted participants in the order in which they enlisted
+     */
+    public List<P> inEnlistmentOrder() {
+        List<P> participants = inReverseOrder();
+
+        Collections.reverse(participants);
+
+        return participants;
+    }
+
+    /**
+     * @return the number of enlisted participants
+     */
+    public int size() {
+        return index.size();
+    }
+}
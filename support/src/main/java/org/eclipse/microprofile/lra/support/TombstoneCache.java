@@ -0,0 +1,229 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.spi.LRAClock;
+import org.eclipse.microprofile.lra.spi.LRAClockProvider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Remembers the outcome of LRAs that have ended, after the coordinator has discarded the
+ * rest of their state, so that late status queries can be answered (see
+ * {@link org.eclipse.microprofile.lra.client.LRAClient#LRA_COORDINATOR_TOMBSTONE_TTL_KEY}).
+ *
+ * Each tombstone is just a 64 bit hash of the LRA id, the outcome and the time the LRA
+ * ended, held in parallel arrays used as a ring buffer (so tombstones are kept in the
+ * order in which the LRAs ended) plus an open addressing index from hash to position.
+ * A tombstone is discarded once it is older than the time to live or, if the cache is
+ * full, when a newer one needs its place. A tombstone takes about 25 bytes and the cache
+ * does not allocate memory after it has been created.
+ *
+ * Since only the hash of the LRA id is kept, a coordinator that also keeps an {@link LRAIdFilter}
+ * learns which ids to remove from it through an eviction listener, which is given the hash of
+ * the id of each tombstone as it is discarded (see {@link LRAIdFilter#remove(long)}).
+ */
+public class TombstoneCache {
+    private static final CompensatorStatus[] STATUSES = CompensatorStatus.values();
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long ttlNanos;
+    private final LRAClock clock;
+    private final LongConsumer evictionListener;
+
+    // the ring buffer of tombstones, oldest first
+    private final long[] hashes;
+    private final byte[] outcomes;
+    private final long[] endTimes;
+    private int head;
+    private int count;
+
+    // open addressing (linear probing) index from hash to ring position plus one (0 marks an empty entry)
+    private final int[] index;
+    private final int mask;
+
+    /**
+     * Create a cache that measures time using the {@link LRAClockProvider#getClock() shared clock}
+     *
+     * @param capacity the maximum number of tombstones
+     * @param ttl how long a tombstone is kept
+     * @param unit the unit that the time to live is expressed in
+     */
+    public TombstoneCache(int capacity, long ttl, TimeUnit unit) {
+        this(capacity, ttl, unit, LRAClockProvider.getClock());
+    }
+
+    /**
+     * @param capacity the maximum number of tombstones
+     * @param ttl how long a tombstone is kept
+     * @param unit the unit that the time to live is expressed in
+     * @param clock the clock used to age tombstones
+     */
+    public TombstoneCache(int capacity, long ttl, TimeUnit unit, LRAClock clock) {
+        this(capacity, ttl, unit, clock, hash -> { });
+    }
+
+    /**
+     * @param capacity the maximum number of tombstones
+     * @param ttl how long a tombstone is kept
+     * @param unit the unit that the time to live is expressed in
+     * @param clock the clock used to age tombstones
+     * @param evictionListener called, while the cache is locked, with the 64 bit hash of the id of
+     *                         each LRA whose tombstone is discarded (see {@link #hash(String)})
+     */
+    public TombstoneCache(int capacity, long ttl, TimeUnit unit, LRAClock clock, LongConsumer evictionListener) {
+        if (capacity <= 0 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("invalid tombstone capacity " + capacity);
+        }
+
+        this.ttlNanos = unit.toNanos(ttl);
+        this.clock = clock;
+        this.evictionListener = evictionListener;
+        this.hashes = new long[capacity];
+        this.outcomes = new byte[capacity];
+        this.endTimes = new long[capacity];
+        // keep the index at most half full so that probe sequences stay short
+        this.index = new int[Integer.highestOneBit(capacity) << 2];
+        this.mask = index.length - 1;
+    }
+
+    /**
+     * Record the outcome of an LRA that has ended. If the LRA already has a tombstone (for example
+     * because a close was retried) only its outcome is updated: the tombstone keeps the time at which
+     * the LRA first ended, since the ring buffer is ordered by that time, so it still expires one time
+     * to live after the first call.
+     *
+     * @param lraId the id of the LRA
+     * @param outcome the final status of the LRA
+     */
+    public synchronized void add(String lraId, CompensatorStatus outcome) {
+        long now = clock.nanoTime();
+        long hash = hash(lraId);
+
+        expire(now);
+
+        int i = find(hash);
+
+        if (index[i] != 0) {
+            // the LRA has already ended (for example, a retried close) so just record the latest outcome
+            outcomes[index[i] - 1] = (byte) outcome.ordinal();
+            return;
+        }
+
+        if (count == hashes.length) {
+            removeOldest();
+            i = find(hash);
+        }
+
+        int pos = (head + count) % hashes.length;
+
+        hashes[pos] = hash;
+        outcomes[pos] = (byte) outcome.ordinal();
+        endTimes[pos] = now;
+        index[i] = pos + 1;
+        count++;
+    }
+
+    /**
+     * @param lraId the id of an LRA
+     * @return the outcome of the LRA or null if there is no tombstone for it
+     */
+    public synchronized CompensatorStatus get(String lraId) {
+        expire(clock.nanoTime());
+
+        int entry = index[find(hash(lraId))];
+
+        return entry == 0 ? null : STATUSES[outcomes[entry - 1]];
+    }
+
+    /**
+     * @return the number of tombstones currently held
+     */
+    public synchronized int size() {
+        expire(clock.nanoTime());
+
+        return count;
+    }
+
+    private void expire(long now) {
+        while (count > 0 && now - endTimes[head] >= ttlNanos) {
+            removeOldest();
+        }
+    }
+
+    private void removeOldest() {
+        long evicted = hashes[head];
+        int i = find(evicted);
+
+        index[i] = 0;
+
+        // shift back any entries that probed past the one that was removed
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int home = slot(hashes[index[j] - 1]);
+
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                index[i] = index[j];
+                index[j] = 0;
+                i = j;
+            }
+        }
+
+        head = (head + 1) % hashes.length;
+        count--;
+
+        evictionListener.accept(evicted);
+    }
+
+    // the index entry holding the hash or, if it is not present, the empty entry where it belongs
+    private int find(long hash) {
+        int i = slot(hash);
+
+        while (index[i] != 0 && hashes[index[i] - 1] != hash) {
+            i = (i + 1) & mask;
+        }
+
+        return i;
+    }
+
+    private int slot(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * The 64 bit FNV-1a hash that identifies an LRA id in the cache, so that distinct ids
+     * practically never share a tombstone
+     *
+     * @param lraId the id of an LRA
+     * @return the hash of the id
+     */
+    public static long hash(String lraId) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < lraId.length(); i++) {
+            hash = (hash ^ lraId.charAt(i)) * FNV_PRIME;
+        }
+
+        return hash;
+    }
+}
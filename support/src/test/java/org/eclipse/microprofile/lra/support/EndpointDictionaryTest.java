@@ -0,0 +1,136 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EndpointDictionaryTest {
+
+    @Test
+    public void internReturnsTheSameIdForTheSameEndpoints() {
+        EndpointDictionary dictionary = new EndpointDictionary(8);
+
+        assertEquals(0, dictionary.intern(link("a")));
+        assertEquals(1, dictionary.intern(link("b")));
+        assertEquals(0, dictionary.intern(link("a")));
+        assertEquals(2, dictionary.size());
+        assertEquals(link("a"), dictionary.getEndpoints(0));
+        assertEquals(link("b"), dictionary.getEndpoints(1));
+        assertNull(dictionary.getEndpoints(2));
+        assertNull(dictionary.getEndpoints(EndpointDictionary.NO_ID));
+    }
+
+    @Test
+    public void fullDictionaryRefusesNewEndpoints() {
+        EndpointDictionary dictionary = new EndpointDictionary(2);
+
+        dictionary.intern(link("a"));
+        dictionary.intern(link("b"));
+
+        assertEquals(EndpointDictionary.NO_ID, dictionary.intern(link("c")));
+        assertEquals(2, dictionary.size());
+        // endpoints that already have an id are still found
+        assertEquals(1, dictionary.intern(link("b")));
+    }
+
+    @Test
+    public void endpointsAreFoundAfterTheTableGrows() {
+        EndpointDictionary dictionary = new EndpointDictionary(100);
+
+        // more than the initial capacity of the table of endpoints
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dictionary.intern(link("p" + i)));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(link("p" + i), dictionary.getEndpoints(i));
+            assertEquals(i, dictionary.intern(link("p" + i)));
+        }
+
+        assertEquals(EndpointDictionary.NO_ID, dictionary.intern(link("p100")));
+    }
+
+    @Test
+    public void concurrentInternsOfTheSameEndpointsShareAnId() throws Exception {
+        EndpointDictionary dictionary = new EndpointDictionary(64);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Integer>>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    List<Integer> ids = new ArrayList<>();
+
+                    start.await();
+
+                    for (int i = 0; i < 32; i++) {
+                        ids.add(dictionary.intern(link("p" + i)));
+                    }
+
+                    return ids;
+                }));
+            }
+
+            start.countDown();
+
+            List<Integer> first = results.get(0).get(10, TimeUnit.SECONDS);
+
+            for (Future<List<Integer>> result : results) {
+                assertEquals(first, result.get(10, TimeUnit.SECONDS));
+            }
+
+            assertEquals(32, new HashSet<>(first).size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(32, dictionary.size());
+
+        Set<String> endpoints = new HashSet<>();
+
+        for (int id = 0; id < 32; id++) {
+            endpoints.add(dictionary.getEndpoints(id));
+        }
+
+        assertEquals(32, endpoints.size());
+    }
+
+    private static String link(String participant) {
+        String base = "http://localhost:8080/" + participant;
+
+        return String.format("<%s/compensate>; rel=\"compensate\",<%s/complete>; rel=\"complete\",<%s/status>; rel=\"status\"",
+                base, base, base);
+    }
+}
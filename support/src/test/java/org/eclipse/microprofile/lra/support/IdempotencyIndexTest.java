@@ -0,0 +1,126 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.spi.VirtualClock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class IdempotencyIndexTest {
+
+    @Test
+    public void concurrentCallersWithTheSameKeyShareOneRequest() throws Exception {
+        IdempotencyIndex<String> index = new IdempotencyIndex<>(1, TimeUnit.MINUTES, new VirtualClock());
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+
+                    return index.computeIfAbsent("start", () -> "lra-" + requests.incrementAndGet());
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("lra-1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, requests.get());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void keysAreRememberedForOneWindowAndForgottenAfterTwo() {
+        VirtualClock clock = new VirtualClock();
+        IdempotencyIndex<String> index = new IdempotencyIndex<>(10, TimeUnit.SECONDS, clock);
+
+        index.computeIfAbsent("close", () -> "Completed");
+
+        // after one window the key has moved to the previous generation but is still remembered
+        clock.advance(10, TimeUnit.SECONDS);
+        assertEquals("Completed", index.get("close"));
+        assertEquals("Completed", index.computeIfAbsent("close", () -> "processed again"));
+
+        // after a second window the previous generation is discarded
+        clock.advance(10, TimeUnit.SECONDS);
+        assertNull(index.get("close"));
+        assertEquals(0, index.size());
+        assertEquals("processed again", index.computeIfAbsent("close", () -> "processed again"));
+    }
+
+    @Test
+    public void everyKeyExpiresIfTwoWindowsPassWithoutARotation() {
+        VirtualClock clock = new VirtualClock();
+        IdempotencyIndex<String> index = new IdempotencyIndex<>(10, TimeUnit.SECONDS, clock);
+
+        index.computeIfAbsent("close", () -> "Completed");
+        clock.advance(20, TimeUnit.SECONDS);
+
+        assertNull(index.get("close"));
+    }
+
+    @Test
+    public void failedRequestIsForgotten() {
+        IdempotencyIndex<String> index = new IdempotencyIndex<>(1, TimeUnit.MINUTES, new VirtualClock());
+
+        try {
+            index.computeIfAbsent("cancel", () -> {
+                throw new IllegalStateException("coordinator unavailable");
+            });
+            fail("the failure of the request was not propagated");
+        } catch (IllegalStateException expected) {
+            // the request failed
+        }
+
+        assertEquals(0, index.size());
+        assertEquals("Compensated", index.computeIfAbsent("cancel", () -> "Compensated"));
+    }
+
+    @Test
+    public void requestWithoutAResultIsForgotten() {
+        IdempotencyIndex<String> index = new IdempotencyIndex<>(1, TimeUnit.MINUTES, new VirtualClock());
+
+        assertNull(index.computeIfAbsent("join", () -> null));
+        assertEquals(0, index.size());
+        assertEquals("recovery-url", index.computeIfAbsent("join", () -> "recovery-url"));
+    }
+}
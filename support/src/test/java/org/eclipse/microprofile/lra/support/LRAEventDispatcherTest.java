@@ -0,0 +1,198 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.spi.LRAEvent;
+import org.eclipse.microprofile.lra.spi.LRAEventListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LRAEventDispatcherTest {
+
+    @Test
+    public void dropDiscardsEventsWhenTheBufferIsFull() throws InterruptedException {
+        BlockingListener listener = new BlockingListener();
+        LRAEventDispatcher dispatcher = new LRAEventDispatcher(2, LRAEventDispatcher.OverflowPolicy.DROP,
+                Collections.singletonList(listener));
+
+        assertTrue(dispatcher.publish(event(0)));
+        listener.awaitFirstEvent();
+
+        // the dispatcher thread is stuck in the listener so the buffer holds two more events
+        assertTrue(dispatcher.publish(event(1)));
+        assertTrue(dispatcher.publish(event(2)));
+        assertFalse(dispatcher.publish(event(3)));
+        assertEquals(1, dispatcher.getDroppedCount());
+
+        listener.release();
+        dispatcher.close();
+
+        assertEquals(Arrays.asList("lra-0", "lra-1", "lra-2"), listener.getLraIds());
+    }
+
+    @Test
+    public void blockWaitsForRoomInTheBuffer() throws Exception {
+        BlockingListener listener = new BlockingListener();
+        LRAEventDispatcher dispatcher = new LRAEventDispatcher(1, LRAEventDispatcher.OverflowPolicy.BLOCK,
+                Collections.singletonList(listener));
+
+        assertTrue(dispatcher.publish(event(0)));
+        listener.awaitFirstEvent();
+        assertTrue(dispatcher.publish(event(1)));
+
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> dispatcher.publish(event(2)));
+
+        Thread.sleep(100);
+        assertFalse("a publisher did not wait for room in a full buffer", blocked.isDone());
+
+        listener.release();
+
+        assertTrue(blocked.get(10, TimeUnit.SECONDS));
+
+        dispatcher.close();
+
+        assertEquals(Arrays.asList("lra-0", "lra-1", "lra-2"), listener.getLraIds());
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void closeDeliversEveryAcceptedEvent() throws InterruptedException {
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        LRAEventDispatcher dispatcher = new LRAEventDispatcher(16, LRAEventDispatcher.OverflowPolicy.DROP,
+                Collections.singletonList(event -> delivered.add(event.getLraId())));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger published = new AtomicInteger();
+        List<Thread> publishers = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    published.incrementAndGet();
+
+                    if (dispatcher.publish(event(i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+
+            publishers.add(publisher);
+            publisher.start();
+        }
+
+        // close while the publishers are still running
+        Thread.sleep(10);
+        dispatcher.close();
+
+        int deliveredWhenClosed = delivered.size();
+
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertEquals(accepted.get(), deliveredWhenClosed);
+        assertEquals(published.get(), accepted.get() + dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void failingListenerDoesNotAffectTheOthers() {
+        List<String> delivered = new ArrayList<>();
+        LRAEventListener failing = event -> {
+            throw new IllegalStateException("listener failure");
+        };
+        LRAEventDispatcher dispatcher = new LRAEventDispatcher(8, LRAEventDispatcher.OverflowPolicy.BLOCK,
+                Arrays.asList(failing, event -> delivered.add(event.getLraId()), failing));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(dispatcher.publish(event(i)));
+        }
+
+        dispatcher.close();
+
+        assertEquals(Arrays.asList("lra-0", "lra-1", "lra-2"), delivered);
+        assertEquals(6, dispatcher.getFailedCount());
+    }
+
+    @Test
+    public void noThreadIsStartedWithoutListeners() {
+        long before = countDispatcherThreads();
+        LRAEventDispatcher dispatcher = new LRAEventDispatcher(8, LRAEventDispatcher.OverflowPolicy.BLOCK,
+                Collections.emptyList());
+
+        assertEquals(before, countDispatcherThreads());
+        assertFalse(dispatcher.publish(event(0)));
+        assertEquals(0, dispatcher.getDroppedCount());
+
+        dispatcher.close();
+    }
+
+    private static LRAEvent event(int i) {
+        return new LRAEvent(LRAEvent.Type.STARTED, "lra-" + i, null, i);
+    }
+
+    private static long countDispatcherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("lra-events"))
+                .count();
+    }
+
+    // holds up the dispatcher thread in the first event until it is released
+    private static class BlockingListener implements LRAEventListener {
+        private final CountDownLatch firstEvent = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final List<String> lraIds = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onEvent(LRAEvent event) {
+            lraIds.add(event.getLraId());
+            firstEvent.countDown();
+
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitFirstEvent() throws InterruptedException {
+            assertTrue(firstEvent.await(10, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> getLraIds() {
+            return lraIds;
+        }
+    }
+}
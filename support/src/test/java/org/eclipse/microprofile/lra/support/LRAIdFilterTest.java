@@ -0,0 +1,123 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LRAIdFilterTest {
+    private static final int IDS = 10000;
+
+    @Test
+    public void addedIdsAreNeverReportedAsUnknown() {
+        LRAIdFilter filter = new LRAIdFilter(IDS, 0.01);
+
+        for (int i = 0; i < IDS; i++) {
+            filter.add("lra-" + i);
+        }
+
+        for (int i = 0; i < IDS; i++) {
+            assertTrue("lra-" + i, filter.mightContain("lra-" + i));
+        }
+
+        int falsePositives = 0;
+
+        for (int i = IDS; i < 2 * IDS; i++) {
+            if (filter.mightContain("lra-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue("too many false positives: " + falsePositives, falsePositives < IDS * 0.03);
+    }
+
+    @Test
+    public void removeUndoesAdd() {
+        LRAIdFilter filter = new LRAIdFilter(IDS, 0.01);
+
+        filter.add("lra-1");
+        assertTrue(filter.remove("lra-1"));
+        assertFalse(filter.mightContain("lra-1"));
+
+        // a second remove is detected and changes nothing
+        assertFalse(filter.remove("lra-1"));
+        filter.add("lra-1");
+        assertTrue(filter.mightContain("lra-1"));
+    }
+
+    @Test
+    public void removingSomeIdsKeepsTheOthers() {
+        LRAIdFilter filter = new LRAIdFilter(IDS, 0.01);
+
+        for (int i = 0; i < IDS; i++) {
+            filter.add("lra-" + i);
+        }
+
+        for (int i = 0; i < IDS; i += 2) {
+            assertTrue(filter.remove("lra-" + i));
+        }
+
+        for (int i = 1; i < IDS; i += 2) {
+            assertTrue("lra-" + i, filter.mightContain("lra-" + i));
+        }
+    }
+
+    @Test
+    public void saturatedCountersAreNeverDecremented() {
+        LRAIdFilter filter = new LRAIdFilter(IDS, 0.01);
+
+        // each counter holds at most 15 so adding the id 20 times saturates all of its counters
+        for (int i = 0; i < 20; i++) {
+            filter.add("lra-1");
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(filter.remove("lra-1"));
+        }
+
+        assertTrue(filter.mightContain("lra-1"));
+    }
+
+    @Test
+    public void removeByHashMatchesRemoveById() {
+        LRAIdFilter byId = new LRAIdFilter(IDS, 0.01);
+        LRAIdFilter byHash = new LRAIdFilter(IDS, 0.01);
+
+        for (int i = 0; i < IDS; i++) {
+            byId.add("lra-" + i);
+            byHash.add("lra-" + i);
+        }
+
+        for (int i = 0; i < IDS; i += 3) {
+            assertTrue(byId.remove("lra-" + i));
+            assertTrue(byHash.remove(TombstoneCache.hash("lra-" + i)));
+        }
+
+        for (int i = 0; i < 2 * IDS; i++) {
+            String id = "lra-" + i;
+
+            assertEquals(id, byId.mightContain(id), byHash.mightContain(id));
+        }
+    }
+}
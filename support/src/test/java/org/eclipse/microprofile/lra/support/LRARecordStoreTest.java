@@ -0,0 +1,111 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LRARecordStoreTest {
+
+    @Test
+    public void addUpdateAndRemove() {
+        LRARecordStore store = new LRARecordStore(8, 256);
+
+        assertTrue(store.add("lra-1", "client-1", true, 1L, 2L));
+        assertFalse(store.add("lra-1", "client-2", false, 3L, 4L));
+        assertTrue(store.setStatus("lra-1", CompensatorStatus.Completing));
+        assertTrue(store.setRecovering("lra-1", true));
+
+        LRARecordStore.Record record = store.get("lra-1");
+
+        assertEquals("client-1", record.getClientId());
+        assertEquals(CompensatorStatus.Completing, record.getStatus());
+        assertTrue(record.isTopLevel());
+        assertTrue(record.isRecovering());
+        assertEquals(2L, record.getDeadline());
+
+        assertTrue(store.remove("lra-1"));
+        assertFalse(store.remove("lra-1"));
+        assertNull(store.get("lra-1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void fullStoreRefusesNewRecords() {
+        LRARecordStore store = new LRARecordStore(4, 256);
+
+        for (int i = 0; i < 4; i++) {
+            store.add("lra-" + i, null, true, 0L, 0L);
+        }
+
+        assertNull(store.get("lra-4"));
+        assertFalse(store.remove("lra-4"));
+
+        try {
+            store.add("lra-4", null, true, 0L, 0L);
+            fail("a full store accepted a new record");
+        } catch (IllegalStateException expected) {
+            // the store is full
+        }
+    }
+
+    @Test
+    public void recordsSurviveRemovalsAndCompaction() {
+        Random random = new Random(42);
+        Map<String, String> expected = new HashMap<>();
+        // a small table so that probe sequences overlap and wrap around, and an arena that
+        // only holds a few more ids than the table so that it is compacted often
+        LRARecordStore store = new LRARecordStore(16, 16 * 24);
+
+        for (int op = 0; op < 100_000; op++) {
+            String lraId = "lra-" + random.nextInt(40);
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(lraId) != null, store.remove(lraId));
+            } else if (!expected.containsKey(lraId) && expected.size() < 16) {
+                String clientId = random.nextBoolean() ? null : "client-" + op;
+
+                expected.put(lraId, String.valueOf(clientId));
+                assertTrue(store.add(lraId, clientId, true, op, 0L));
+            }
+
+            assertEquals(expected.size(), store.size());
+        }
+
+        for (int i = 0; i < 40; i++) {
+            LRARecordStore.Record record = store.get("lra-" + i);
+
+            assertEquals(expected.get("lra-" + i), record == null ? null : String.valueOf(record.getClientId()));
+        }
+
+        assertEquals(expected.size(), store.list(record -> true).size());
+    }
+}
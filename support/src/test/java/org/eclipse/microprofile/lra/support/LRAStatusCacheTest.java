@@ -0,0 +1,200 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LRAStatusCacheTest {
+
+    @Test
+    public void concurrentQueriesAreCoalesced() throws Exception {
+        LRAStatusCache cache = new LRAStatusCache(16);
+        URL lra = lra(1);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        List<FutureTask<Optional<CompensatorStatus>>> results = new ArrayList<>();
+
+        Function<URL, Optional<CompensatorStatus>> query = id -> {
+            queries.incrementAndGet();
+            inFlight.countDown();
+            await(answer);
+
+            return Optional.empty();
+        };
+
+        // the first query stays in flight until the others are waiting for it
+        results.add(start(() -> cache.getStatus(lra, query)));
+        assertTrue(inFlight.await(10, TimeUnit.SECONDS));
+
+        for (int i = 1; i < 8; i++) {
+            results.add(startAndAwaitWaiting(() -> cache.getStatus(lra, query)));
+        }
+
+        answer.countDown();
+
+        for (FutureTask<Optional<CompensatorStatus>> result : results) {
+            assertFalse(result.get(10, TimeUnit.SECONDS).isPresent());
+        }
+
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void failureIsPropagatedToWaitingCallers() throws Exception {
+        LRAStatusCache cache = new LRAStatusCache(16);
+        URL lra = lra(1);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+
+        FutureTask<Boolean> first = start(() -> cache.isActive(lra, id -> {
+            inFlight.countDown();
+            await(fail);
+
+            throw new IllegalStateException("coordinator unavailable");
+        }));
+
+        assertTrue(inFlight.await(10, TimeUnit.SECONDS));
+
+        FutureTask<Boolean> second = startAndAwaitWaiting(() -> cache.isActive(lra, id -> true));
+
+        fail.countDown();
+
+        assertFailed(first);
+        assertFailed(second);
+
+        // the failure is not remembered
+        assertTrue(cache.isActive(lra, id -> true));
+    }
+
+    @Test
+    public void onlyTerminalOutcomesAreCached() throws MalformedURLException {
+        LRAStatusCache cache = new LRAStatusCache(16);
+        AtomicInteger queries = new AtomicInteger();
+
+        for (CompensatorStatus status : CompensatorStatus.values()) {
+            URL lra = lra(status.ordinal());
+            Function<URL, Optional<CompensatorStatus>> query = id -> {
+                queries.incrementAndGet();
+                return Optional.of(status);
+            };
+
+            cache.getStatus(lra, query);
+            queries.set(0);
+
+            assertEquals(Optional.of(status), cache.getStatus(lra, query));
+
+            boolean terminal = status == CompensatorStatus.Completed || status == CompensatorStatus.Compensated;
+
+            assertEquals(status + " was not handled correctly", terminal ? 0 : 1, queries.get());
+        }
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.isActive(lra(CompensatorStatus.Completed.ordinal()), id -> {
+            throw new IllegalStateException("the coordinator was asked about a completed LRA");
+        }));
+    }
+
+    @Test
+    public void leastRecentlyUsedOutcomeIsEvicted() throws MalformedURLException {
+        LRAStatusCache cache = new LRAStatusCache(2);
+
+        cache.remember(lra(1), CompensatorStatus.Completed);
+        cache.remember(lra(2), CompensatorStatus.Compensated);
+
+        // reading the first outcome makes the second the least recently used
+        assertEquals(Optional.of(CompensatorStatus.Completed), cache.getStatus(lra(1), id -> Optional.empty()));
+
+        cache.remember(lra(3), CompensatorStatus.Completed);
+
+        assertEquals(2, cache.size());
+        assertEquals(Optional.of(CompensatorStatus.Completed), cache.getStatus(lra(1), id -> Optional.empty()));
+        assertEquals(Optional.empty(), cache.getStatus(lra(2), id -> Optional.empty()));
+    }
+
+    private static URL lra(int i) throws MalformedURLException {
+        return new URL("http://localhost:8080/lra-coordinator/" + i);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <V> FutureTask<V> start(Callable<V> query) {
+        FutureTask<V> result = new FutureTask<>(query);
+        Thread thread = new Thread(result);
+
+        thread.setDaemon(true);
+        thread.start();
+
+        return result;
+    }
+
+    // start a query and wait until it is blocked waiting for the outcome of the query in flight
+    private static <V> FutureTask<V> startAndAwaitWaiting(Callable<V> query) throws InterruptedException {
+        FutureTask<V> result = new FutureTask<>(query);
+        Thread thread = new Thread(result);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        thread.setDaemon(true);
+        thread.start();
+
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("the query did not wait for the one in flight", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+
+        return result;
+    }
+
+    private static void assertFailed(Future<Boolean> query) throws Exception {
+        try {
+            query.get(10, TimeUnit.SECONDS);
+            fail("a failed query returned a result");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ParticipantListTest {
+    private static final int THREADS = 8;
+    private static final int PARTICIPANTS = 500;
+
+    @Test
+    public void participantsCompensateInReverseOrder() {
+        ParticipantList<String> participants = new ParticipantList<>();
+
+        assertNull(participants.enlist("a", "a"));
+        assertNull(participants.enlist("b", "b"));
+        assertNull(participants.enlist("c", "c"));
+        assertEquals("b", participants.enlist("b", "duplicate"));
+
+        assertEquals("b", participants.leave("b"));
+        assertNull(participants.leave("b"));
+        assertNull(participants.enlist("b", "b again"));
+
+        assertEquals(Arrays.asList("b again", "c", "a"), participants.inReverseOrder());
+        assertEquals(Arrays.asList("a", "c", "b again"), participants.inEnlistmentOrder());
+        assertEquals(3, participants.size());
+    }
+
+    @Test
+    public void concurrentEnlistLeaveAndReenlist() throws Exception {
+        ParticipantList<String> participants = new ParticipantList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<String>>> expectedOrders = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                String prefix = "t" + t + "-";
+
+                // each thread returns the order in which its own participants should be listed
+                expectedOrders.add(executor.submit(() -> {
+                    List<String> expected = new ArrayList<>();
+
+                    start.await();
+
+                    for (int i = 0; i < PARTICIPANTS; i++) {
+                        String id = prefix + i;
+
+                        assertNull(participants.enlist(id, id));
+                        expected.add(id);
+
+                        if (i % 3 == 0) {
+                            assertEquals(id, participants.leave(id));
+                            expected.remove(id);
+                        }
+
+                        if (i % 6 == 0) {
+                            assertNull(participants.enlist(id, id));
+                            expected.add(id);
+                        }
+                    }
+
+                    // retried joins neither enlist a participant again nor change its place
+                    for (String id : expected) {
+                        assertNotNull(participants.enlist(id, "duplicate"));
+                    }
+
+                    return expected;
+                }));
+            }
+
+            start.countDown();
+
+            List<List<String>> expected = new ArrayList<>();
+
+            for (Future<List<String>> expectedOrder : expectedOrders) {
+                expected.add(expectedOrder.get(30, TimeUnit.SECONDS));
+            }
+
+            List<String> enlisted = participants.inEnlistmentOrder();
+
+            for (int t = 0; t < THREADS; t++) {
+                String prefix = "t" + t + "-";
+
+                assertEquals(expected.get(t), enlisted.stream().filter(id -> id.startsWith(prefix)).collect(Collectors.toList()));
+            }
+
+            assertEquals(enlisted.size(), new HashSet<>(enlisted).size());
+            assertEquals(enlisted.size(), participants.size());
+
+            Collections.reverse(enlisted);
+            assertEquals(enlisted, participants.inReverseOrder());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
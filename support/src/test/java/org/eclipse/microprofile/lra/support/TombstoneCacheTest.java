@@ -0,0 +1,137 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.eclipse.microprofile.lra.support;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.spi.VirtualClock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TombstoneCacheTest {
+
+    @Test
+    public void tombstoneExpiresAfterTheTimeToLive() {
+        VirtualClock clock = new VirtualClock();
+        List<Long> evicted = new ArrayList<>();
+        TombstoneCache cache = new TombstoneCache(8, 10, TimeUnit.SECONDS, clock, evicted::add);
+
+        cache.add("lra-1", CompensatorStatus.Completed);
+        clock.advance(5, TimeUnit.SECONDS);
+        cache.add("lra-2", CompensatorStatus.Compensated);
+
+        clock.advance(5, TimeUnit.SECONDS);
+        assertNull(cache.get("lra-1"));
+        assertEquals(CompensatorStatus.Compensated, cache.get("lra-2"));
+        assertEquals(Arrays.asList(TombstoneCache.hash("lra-1")), evicted);
+
+        clock.advance(5, TimeUnit.SECONDS);
+        assertEquals(0, cache.size());
+        assertEquals(Arrays.asList(TombstoneCache.hash("lra-1"), TombstoneCache.hash("lra-2")), evicted);
+    }
+
+    @Test
+    public void readdingKeepsTheOriginalEndTime() {
+        VirtualClock clock = new VirtualClock();
+        TombstoneCache cache = new TombstoneCache(8, 10, TimeUnit.SECONDS, clock);
+
+        cache.add("lra-1", CompensatorStatus.FailedToComplete);
+        clock.advance(5, TimeUnit.SECONDS);
+        cache.add("lra-1", CompensatorStatus.Completed);
+
+        assertEquals(1, cache.size());
+        assertEquals(CompensatorStatus.Completed, cache.get("lra-1"));
+
+        clock.advance(5, TimeUnit.SECONDS);
+        assertNull(cache.get("lra-1"));
+    }
+
+    @Test
+    public void fullCacheDisplacesTheOldestTombstone() {
+        List<Long> evicted = new ArrayList<>();
+        TombstoneCache cache = new TombstoneCache(3, 1, TimeUnit.HOURS, new VirtualClock(), evicted::add);
+
+        for (int i = 0; i < 5; i++) {
+            cache.add("lra-" + i, CompensatorStatus.Completed);
+        }
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("lra-0"));
+        assertNull(cache.get("lra-1"));
+
+        for (int i = 2; i < 5; i++) {
+            assertEquals(CompensatorStatus.Completed, cache.get("lra-" + i));
+        }
+
+        assertEquals(Arrays.asList(TombstoneCache.hash("lra-0"), TombstoneCache.hash("lra-1")), evicted);
+    }
+
+    @Test
+    public void removalKeepsCollidingTombstonesReachable() {
+        VirtualClock clock = new VirtualClock();
+        // a capacity of 4 gives an index of 16 entries
+        TombstoneCache cache = new TombstoneCache(4, 10, TimeUnit.SECONDS, clock);
+        List<String> ids = new ArrayList<>();
+
+        // three ids that share a home entry followed by one whose home entry is inside their probe chain
+        ids.addAll(idsWithSlot(5, 3, 15));
+        ids.addAll(idsWithSlot(6, 1, 15));
+
+        for (String id : ids) {
+            cache.add(id, CompensatorStatus.Compensated);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+
+        // expire the tombstones one at a time, oldest first, checking that the rest can still be found
+        clock.advance(10 - ids.size(), TimeUnit.SECONDS);
+
+        for (int removed = 1; removed <= ids.size(); removed++) {
+            assertEquals(ids.size() - removed, cache.size());
+
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals(ids.get(i), i < removed ? null : CompensatorStatus.Compensated, cache.get(ids.get(i)));
+            }
+
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+    }
+
+    // ids whose hash has the given home entry in an index with the given mask
+    private static List<String> idsWithSlot(int slot, int n, int mask) {
+        List<String> ids = new ArrayList<>();
+
+        for (int i = 0; ids.size() < n; i++) {
+            long hash = TombstoneCache.hash("lra-" + i);
+
+            if (((int) (hash ^ (hash >>> 32)) & mask) == slot) {
+                ids.add("lra-" + i);
+            }
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck;
+
+import org.eclipse.microprofile.lra.client.LRAClient;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps an {@link LRAClient} and counts the calls that result in a request to a coordinator so that the TCK can
+ * report how many coordinator calls each test made. The count belongs to the suite instance that owns the wrapper
+ * so calls made from worker threads are included. The calls are not reported to the metrics sink since the client
+ * implementation being tested already reports them there.
+ */
+class CoordinatorCallCounter implements InvocationHandler {
+    // LRAClient methods that do not talk to a coordinator
+    private static final Set<String> LOCAL_METHODS = new HashSet<>(Arrays.asList(
+            "setCoordinatorURI", "setCoordinatorURIs", "setRecoveryCoordinatorURI", "close",
+            "getCurrent", "setCurrentLRA", "hashCode", "equals", "toString"));
+
+    private final LRAClient delegate;
+    private final AtomicInteger calls;
+
+    private CoordinatorCallCounter(LRAClient delegate, AtomicInteger calls) {
+        this.delegate = delegate;
+        this.calls = calls;
+    }
+
+    /**
+     * @param lraClient the client to wrap
+     * @param calls incremented for every coordinator call made through the returned client, whichever thread makes it
+     * @return a client that counts its coordinator calls
+     */
+    static LRAClient wrap(LRAClient lraClient, AtomicInteger calls) {
+        return (LRAClient) Proxy.newProxyInstance(LRAClient.class.getClassLoader(),
+                new Class<?>[] {LRAClient.class}, new CoordinatorCallCounter(lraClient, calls));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (LOCAL_METHODS.contains(method.getName())) {
+            return invokeDelegate(method, args);
+        }
+
+        calls.incrementAndGet();
+
+        return invokeDelegate(method, args);
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -19,8 +19,18 @@
  *******************************************************************************/
 package org.eclipse.microprofile.lra.tck;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 class TckMethodResult {
     private String testName;
@@ -29,13 +39,25 @@ class TckMethodResult {
     private boolean passed;
     private boolean ran;
     private boolean verbose;
+    private boolean serial;
     private String result;
     private Throwable failureReason;
+    private long durationMillis;
+    private int coordinatorCalls;
 
     TckMethodResult(String testName, Function<TckTests, String> testMethod, boolean verbose) {
+        this(testName, testMethod, verbose, false);
+    }
+
+    /**
+     * @param serial true if the test depends on state that other tests change (such as the total
+     *               number of active LRAs) and so must not run concurrently with them
+     */
+    TckMethodResult(String testName, Function<TckTests, String> testMethod, boolean verbose, boolean serial) {
         this.testName = testName;
         this.testMethod = testMethod;
         this.verbose = verbose;
+        this.serial = serial;
     }
 
     public String getTestName() {
@@ -50,6 +72,10 @@ class TckMethodResult {
         return ran;
     }
 
+    boolean isSerial() {
+        return serial;
+    }
+
     public String getResult() {
         return result;
     }
@@ -58,6 +84,21 @@ class TckMethodResult {
         return failureReason;
     }
 
+    /**
+     * @return the wall clock time taken by the test (excluding the set up and clean up performed around it)
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return the number of requests that the test made to the coordinator via the {@link
+     * org.eclipse.microprofile.lra.client.LRAClient}
+     */
+    public int getCoordinatorCalls() {
+        return coordinatorCalls;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -72,11 +113,77 @@ class TckMethodResult {
         return Objects.hash(testName);
     }
 
-    void test(TckTests suite){
+    /*
+     * Run the test iterations times on each of threads threads. Each thread uses its own suite instance
+     * and, in contrast to test(), the per test clean up is not performed since other threads may be
+     * using LRAs that the clean up would close.
+     */
+    TckStressResult stress(Supplier<TckTests> suites, int threads, int iterations) {
+        System.out.printf("Stressing test %s with %d threads and %d iterations%n", testName, threads, iterations);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long[][] latencies = new long[threads][iterations];
+        AtomicInteger failures = new AtomicInteger(0);
+        AtomicReference<String> firstFailure = new AtomicReference<>();
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                long[] threadLatencies = latencies[t];
+
+                workers.add(executor.submit(() -> {
+                    TckTests suite = suites.get();
+
+                    suite.before();
+
+                    for (int i = 0; i < iterations; i++) {
+                        long began = System.nanoTime();
+
+                        try {
+                            testMethod.apply(suite);
+                        } catch (Throwable e) {
+                            failures.incrementAndGet();
+                            firstFailure.compareAndSet(null, e.getMessage());
+                        }
+
+                        threadLatencies[i] = System.nanoTime() - began;
+                    }
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new TckStressResult(testName, threads, iterations, failures.get(), firstFailure.get(),
+                System.nanoTime() - start, latencies);
+    }
+
+    void test(TckTests suite) {
+        test(suite, true);
+    }
+
+    /*
+     * The clean up after a test closes any LRAs that the test left active so it must be skipped
+     * when other tests are running concurrently
+     */
+    void test(TckTests suite, boolean cleanUp) {
         System.out.printf("Starting test %s%n", testName);
 
         suite.before();
 
+        int callsBefore = suite.getCoordinatorCalls();
+        long began = System.nanoTime();
+
         try {
             ran = true;
             result = testMethod.apply(suite);
@@ -87,7 +194,12 @@ class TckMethodResult {
             passed = false;
             failureReason = verbose ? t : null;
         } finally {
-            suite.after();
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+            coordinatorCalls = suite.getCoordinatorCalls() - callsBefore;
+
+            if (cleanUp) {
+                suite.after();
+            }
         }
     }
 }
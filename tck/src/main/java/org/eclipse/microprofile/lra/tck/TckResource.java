@@ -30,12 +30,26 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.util.List;
 
 @Path("/tck")
 public class TckResource {
 
     private static final String VERBOSE = "verbose";
+    private static final String THREADS = "threads";
+    private static final String ITERATIONS = "iterations";
+    private static final String PARALLEL = "parallel";
+
+    // the stress parameters size a thread pool and a latency array so a single request must not be able to exhaust either
+    private static final String MAX_THREADS_KEY = "lra.tck.stress.max.threads";
+    private static final String MAX_ITERATIONS_KEY = "lra.tck.stress.max.iterations";
+    private static final int MAX_THREADS = 64;
+    private static final int MAX_ITERATIONS = 10000;
+
     @Inject
     private LRAClient lraClient;
 
@@ -55,13 +69,45 @@ public class TckResource {
     @PUT
     @Path("{name}")
     @Produces(MediaType.APPLICATION_JSON)
-    public TckResult runTck(@PathParam("name") String testName, @DefaultValue("true") @QueryParam(VERBOSE) boolean isVerbose) {
+    public Response runTck(@PathParam("name") String testName, @DefaultValue("true") @QueryParam(VERBOSE) boolean isVerbose,
+                           @DefaultValue("0") @QueryParam(THREADS) int threads,
+                           @DefaultValue("0") @QueryParam(ITERATIONS) int iterations,
+                           @DefaultValue("false") @QueryParam(PARALLEL) boolean parallel) {
+        if (threads < 0 || iterations < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("%s and %s must not be negative", THREADS, ITERATIONS)).build();
+        }
+
+        int maxThreads = Integer.getInteger(MAX_THREADS_KEY, MAX_THREADS);
+        int maxIterations = Integer.getInteger(MAX_ITERATIONS_KEY, MAX_ITERATIONS);
+
+        if (threads > maxThreads || iterations > maxIterations) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("%s must be at most %d and %s at most %d (see %s and %s)",
+                            THREADS, maxThreads, ITERATIONS, maxIterations, MAX_THREADS_KEY, MAX_ITERATIONS_KEY)).build();
+        }
+
         test.before();
 
-        TckResult results = test.runTck(lraClient, testName, isVerbose);
+        if (threads > 0 || iterations > 0) {
+            // stress mode: run the tests concurrently and report throughput and latencies
+            Object results = new GenericEntity<List<TckStressResult>>(
+                    test.runStress(lraClient, testName, Math.max(threads, 1), Math.max(iterations, 1))) { };
+
+            test.after();
+
+            return Response.ok(results).build();
+        }
 
-        test.after();
+        // run the tests while the response is being written so that each result is sent as soon as its test finishes
+        StreamingOutput results = stream -> {
+            try {
+                TckResultJsonMarshaller.write(stream, onResult -> test.runTck(lraClient, testName, isVerbose, parallel, onResult));
+            } finally {
+                test.after();
+            }
+        };
 
-        return results;
+        return Response.ok(results).build();
     }
 }
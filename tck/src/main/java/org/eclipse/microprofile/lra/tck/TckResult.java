@@ -21,36 +21,97 @@
 package org.eclipse.microprofile.lra.tck;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 class TckResult {
+    // the maximum number of tests that run at the same time in a parallel run
+    private static final String PARALLELISM_KEY = "lra.tck.parallelism";
+    private static final int DEFAULT_PARALLELISM = 16;
+
     private List<TckMethodResult> tests;
     private List<TckMethodResult> results;
     private List<String> failures;
+    private Consumer<TckMethodResult> listener;
 
     TckResult() {
         tests = new ArrayList<>();
+        results = new ArrayList<>();
         failures = new ArrayList<>();
+        listener = result -> { };
+    }
+
+    // called with each test that ran as soon as it finishes (from the thread that ran it)
+    void setListener(Consumer<TckMethodResult> listener) {
+        this.listener = listener;
     }
 
     void add(String testName, Function<TckTests, String> testMethod, boolean verbose) {
         tests.add( new TckMethodResult(testName, testMethod, verbose));
     }
 
+    // add a test that must not run concurrently with other tests
+    void addSerial(String testName, Function<TckTests, String> testMethod, boolean verbose) {
+        tests.add( new TckMethodResult(testName, testMethod, verbose, true));
+    }
+
     void runTests(TckTests testSpec, String testname) {
-        Optional<TckMethodResult> tckTest = tests.stream()
-                .filter(name -> name.getTestName().equalsIgnoreCase(testname))
-                .findFirst();
+        selectTests(testname).forEach(t -> run(t, testSpec, true));
 
-        if (tckTest.isPresent()) {
-            tckTest.get().test(testSpec);
-        } else {
-            tests.forEach(t -> t.test(testSpec));
+        collectResults();
+    }
+
+    /*
+     * Run the tests that are independent of each other concurrently, each with its own suite instance,
+     * followed by the remaining tests one at a time
+     */
+    void runTestsInParallel(TckTests testSpec, Supplier<TckTests> testSpecs, String testname) {
+        List<Callable<Void>> independent = selectTests(testname).stream()
+                .filter(t -> !t.isSerial())
+                .map(t -> (Callable<Void>) () -> {
+                    run(t, testSpecs.get(), false);
+                    return null;
+                })
+                .collect(Collectors.toList());
+
+        if (!independent.isEmpty()) {
+            int parallelism = Math.max(1, Integer.getInteger(PARALLELISM_KEY, DEFAULT_PARALLELISM));
+            ForkJoinPool pool = new ForkJoinPool(Math.min(independent.size(), parallelism));
+
+            try {
+                pool.invokeAll(independent);
+            } finally {
+                pool.shutdown();
+            }
+
+            // the concurrent tests skipped their clean up so do it now before the serial tests run
+            testSpec.after();
         }
 
+        selectTests(testname).stream()
+                .filter(TckMethodResult::isSerial)
+                .forEach(t -> run(t, testSpec, true));
+
+        collectResults();
+    }
+
+    private void run(TckMethodResult test, TckTests testSpec, boolean cleanUp) {
+        test.test(testSpec, cleanUp);
+
+        if (test.isRan()) {
+            listener.accept(test);
+        }
+    }
+
+    private void collectResults() {
+
         failures = tests.stream()
                 .filter(t -> !t.isPassed() && t.isRan())
                 .map(TckMethodResult::getTestName)
@@ -61,6 +122,21 @@ class TckResult {
                 .collect(Collectors.toList());
     }
 
+    List<TckStressResult> runStress(Supplier<TckTests> testSpecs, String testname, int threads, int iterations) {
+        return selectTests(testname).stream()
+                .map(t -> t.stress(testSpecs, threads, iterations))
+                .collect(Collectors.toList());
+    }
+
+    // the named test or all of them if there is no test with that name
+    private List<TckMethodResult> selectTests(String testname) {
+        Optional<TckMethodResult> tckTest = tests.stream()
+                .filter(name -> name.getTestName().equalsIgnoreCase(testname))
+                .findFirst();
+
+        return tckTest.map(Collections::singletonList).orElse(tests);
+    }
+
     public int getNumberOfFailures() {
         return failures.size();
     }
@@ -0,0 +1,95 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes a {@link TckResult} one test at a time so that the report of a large run is never held in memory.
+ * The test results come first so that {@link #write} can emit each one as soon as the test finishes, the
+ * failures are only known once the run is over.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class TckResultJsonMarshaller implements MessageBodyWriter<TckResult> {
+
+    @Override
+    public long getSize(TckResult result, Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType) {
+        return clazz == TckResult.class;
+    }
+
+    @Override
+    public void writeTo(TckResult result, Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> valueMap, OutputStream stream) throws IOException, WebApplicationException {
+        write(stream, onResult -> {
+            result.getTestResults().forEach(onResult);
+            return result;
+        });
+    }
+
+    /**
+     * Start a run and write each test to the stream as it finishes
+     *
+     * @param stream the entity stream (which is left open)
+     * @param run runs the tests passing each one that ran to the supplied callback, possibly from several threads
+     */
+    static void write(OutputStream stream, Function<Consumer<TckMethodResult>, TckResult> run) {
+        JsonGenerator generator = Json.createGenerator(stream);
+
+        generator.writeStartObject().writeStartArray("testResults");
+
+        TckResult result = run.apply(test -> {
+            synchronized (generator) {
+                generator.writeStartObject();
+                TckTestJsonMarshaller.writeFields(generator, test);
+                generator.writeEnd();
+                generator.flush();
+            }
+        });
+
+        generator.writeEnd().writeStartArray("failures");
+
+        result.getFailures().forEach(generator::write);
+
+        // do not close the generator since that would close the entity stream
+        generator.writeEnd()
+                .write("numberOfFailures", result.getNumberOfFailures())
+                .writeEnd()
+                .flush();
+    }
+}
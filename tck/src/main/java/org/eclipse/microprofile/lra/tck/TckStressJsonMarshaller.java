@@ -0,0 +1,92 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Streams the results of a stress run one test at a time instead of building the whole report
+ * with the default (reflective) JSON provider
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class TckStressJsonMarshaller implements MessageBodyWriter<List<TckStressResult>> {
+
+    @Override
+    public long getSize(List<TckStressResult> results, Class<?> clazz, Type type, Annotation[] annotations,
+                        MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType) {
+        return List.class.isAssignableFrom(clazz) && type instanceof ParameterizedType
+                && ((ParameterizedType) type).getActualTypeArguments()[0] == TckStressResult.class;
+    }
+
+    @Override
+    public void writeTo(List<TckStressResult> results, Class<?> clazz, Type type, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> valueMap, OutputStream stream)
+            throws IOException, WebApplicationException {
+
+        JsonGenerator generator = Json.createGenerator(stream);
+
+        generator.writeStartArray();
+
+        for (TckStressResult result : results) {
+            generator.writeStartObject()
+                    .write("testName", result.getTestName())
+                    .write("threads", result.getThreads())
+                    .write("iterations", result.getIterations())
+                    .write("runs", result.getRuns())
+                    .write("failures", result.getFailures());
+
+            if (result.getFirstFailure() == null) {
+                generator.writeNull("firstFailure");
+            } else {
+                generator.write("firstFailure", result.getFirstFailure());
+            }
+
+            generator.write("durationMillis", result.getDurationMillis())
+                    .write("throughput", result.getThroughput())
+                    .write("p50", result.getP50())
+                    .write("p99", result.getP99())
+                    .write("p999", result.getP999())
+                    .writeEnd();
+            generator.flush();
+        }
+
+        // do not close the generator since that would close the entity stream
+        generator.writeEnd().flush();
+    }
+}
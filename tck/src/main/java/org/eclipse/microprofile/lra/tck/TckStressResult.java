@@ -0,0 +1,114 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of running a TCK test repeatedly from several threads: the number of runs,
+ * how many of them failed, the throughput and latency percentiles (in milliseconds).
+ */
+class TckStressResult {
+    private String testName;
+    private int threads;
+    private int iterations;
+    private int runs;
+    private int failures;
+    private String firstFailure;
+    private long durationMillis;
+    private double throughput;
+    private double p50;
+    private double p99;
+    private double p999;
+
+    TckStressResult(String testName, int threads, int iterations, int failures, String firstFailure,
+                    long elapsedNanos, long[][] latencies) {
+        this.testName = testName;
+        this.threads = threads;
+        this.iterations = iterations;
+        this.failures = failures;
+        this.firstFailure = firstFailure;
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+
+        runs = sorted.length;
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        throughput = elapsedNanos == 0 ? 0 : runs * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        p50 = percentile(sorted, 0.5);
+        p99 = percentile(sorted, 0.99);
+        p999 = percentile(sorted, 0.999);
+    }
+
+    // nearest rank percentile of the sorted latencies converted from nanoseconds to milliseconds
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(p * sorted.length);
+
+        return sorted[Math.max(rank, 1) - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public String getFirstFailure() {
+        return firstFailure;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+}
@@ -20,16 +20,17 @@
 package org.eclipse.microprofile.lra.tck;
 
 import javax.json.Json;
-import javax.json.JsonObject;
+import javax.json.stream.JsonGenerator;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 
@@ -51,11 +52,35 @@ public class TckTestJsonMarshaller implements MessageBodyWriter<TckMethodResult>
     public void writeTo(TckMethodResult test, Class<?> clazz, Type type, Annotation[] annotations, MediaType mediaType,
                         MultivaluedMap<String, Object> valueMap, OutputStream stream) throws IOException, WebApplicationException {
 
-        JsonObject jsonObject = Json.createObjectBuilder()
-                .add("name", test.getTestName())
-                .add("result", test.getResult()).build();
+        JsonGenerator generator = Json.createGenerator(stream);
 
-        DataOutputStream outputStream = new DataOutputStream(stream);
-        outputStream.writeBytes(jsonObject.toString());
+        generator.writeStartObject();
+        writeFields(generator, test);
+        // do not close the generator since that would close the entity stream
+        generator.writeEnd().flush();
+    }
+
+    static void writeFields(JsonGenerator generator, TckMethodResult test) {
+        generator.write("name", test.getTestName())
+                .write("passed", test.isPassed())
+                .write("durationMillis", test.getDurationMillis())
+                .write("coordinatorCalls", test.getCoordinatorCalls());
+
+        writeNullable(generator, "result", test.getResult());
+
+        if (test.getFailureReason() != null) {
+            StringWriter trace = new StringWriter();
+
+            test.getFailureReason().printStackTrace(new PrintWriter(trace));
+            generator.write("failureReason", trace.toString());
+        }
+    }
+
+    private static void writeNullable(JsonGenerator generator, String name, String value) {
+        if (value == null) {
+            generator.writeNull(name);
+        } else {
+            generator.write(name, value);
+        }
     }
 }
@@ -38,32 +38,55 @@ import javax.ws.rs.core.Response;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
 import static org.eclipse.microprofile.lra.client.LRAClient.LRA_COORDINATOR_HOST_KEY;
+import static org.eclipse.microprofile.lra.client.LRAClient.LRA_COORDINATOR_MAX_ACTIVE_PER_CLIENT_KEY;
 import static org.eclipse.microprofile.lra.client.LRAClient.LRA_COORDINATOR_PORT_KEY;
 import static org.eclipse.microprofile.lra.client.LRAClient.LRA_COORDINATOR_PATH_KEY;
+import static org.eclipse.microprofile.lra.client.LRAClient.LRA_COORDINATOR_URLS_KEY;
 import static org.eclipse.microprofile.lra.client.LRAClient.LRA_RECOVERY_PATH_KEY;
 import static org.eclipse.microprofile.lra.tck.participant.api.ActivityController.ACCEPT_WORK;
 import static org.eclipse.microprofile.lra.tck.participant.api.ActivityController.ACTIVITIES_PATH;
 
 public class TckTests {
     private static final Long LRA_TIMEOUT_MILLIS = 50000L;
+    private static final int CONCURRENT_PARTICIPANTS = 1000;
+    private static final int CONCURRENT_JOIN_THREADS = 50;
+    private static final String READY_TIMEOUT_KEY = "lra.tck.ready.timeout";
+    private static final long READY_TIMEOUT_MILLIS = 30000L;
     private static URL micrserviceBaseUrl;
     private static URL rcBaseUrl;
+    private static URI coordinatorUri;
 
     private static final int COORDINATOR_SWARM_PORT = 8082;
     private static final int TEST_SWARM_PORT = 8080;
 
-    private static LRAClient lraClient;
+    private static LRAClient sharedClient;
     private static Client msClient;
     private static Client rcClient;
 
+    // each suite instance counts its own coordinator calls so that calls made from worker threads are attributed to it
+    private final AtomicInteger coordinatorCalls = new AtomicInteger();
+    private LRAClient lraClient;
     private WebTarget msTarget;
     private WebTarget recoveryTarget;
 
@@ -79,44 +102,105 @@ public class TckTests {
     }
 
     public TckResult runTck(LRAClient lraClient, String testname, boolean verbose) {
-        TckResult run = new TckResult();
+        return runTck(lraClient, testname, verbose, false);
+    }
+
+    /**
+     * Run the named test (or all tests)
+     *
+     * @param lraClient the client for the coordinator under test
+     * @param testname the name of the test to run or "all"
+     * @param verbose whether to report the stack trace of failed tests
+     * @param parallel whether tests that do not depend on each other should run concurrently
+     * @return the outcome of each test
+     */
+    public TckResult runTck(LRAClient lraClient, String testname, boolean verbose, boolean parallel) {
+        return runTck(lraClient, testname, verbose, parallel, result -> { });
+    }
+
+    /**
+     * Run the named test (or all tests) reporting the outcome of each test as soon as it finishes
+     *
+     * @param lraClient the client for the coordinator under test
+     * @param testname the name of the test to run or "all"
+     * @param verbose whether to report the stack trace of failed tests
+     * @param parallel whether tests that do not depend on each other should run concurrently
+     * @param onResult called with each test that ran, from the thread that ran it
+     * @return the outcome of each test
+     */
+    TckResult runTck(LRAClient lraClient, String testname, boolean verbose, boolean parallel,
+                     Consumer<TckMethodResult> onResult) {
+        TckResult run = createTests(verbose);
 
         initTck(lraClient);
+        run.setListener(onResult);
+
+        if (parallel) {
+            run.runTestsInParallel(this, TckTests::new, testname);
+        } else {
+            run.runTests(this, testname);
+        }
+
+        return run;
+    }
+
+    /**
+     * Run the named test (or all tests) concurrently and measure the throughput and latencies
+     *
+     * @param lraClient the client for the coordinator under test
+     * @param testname the name of the test to run or "all"
+     * @param threads the number of threads that run each test concurrently
+     * @param iterations the number of times each thread runs each test
+     * @return the measurements for each of the tests that were run
+     */
+    public List<TckStressResult> runStress(LRAClient lraClient, String testname, int threads, int iterations) {
+        TckResult run = createTests(false);
 
+        initTck(lraClient);
+
+        return run.runStress(TckTests::new, testname, threads, iterations);
+    }
+
+    private TckResult createTests(boolean verbose) {
+        TckResult run = new TckResult();
+
+        run.add("coordinatorReady", TckTests::coordinatorReady, verbose);
         run.add("timeLimit", TckTests::timeLimit, verbose);
         run.add("startLRA", TckTests::startLRA, verbose);
         run.add("cancelLRA", TckTests::cancelLRA, verbose);
         run.add("closeLRA", TckTests::closeLRA, verbose);
         run.add("getActiveLRAs", TckTests::getActiveLRAs, verbose);
         run.add("getAllLRAs", TckTests::getAllLRAs, verbose);
+        run.add("getRecoveringLRAs", TckTests::getRecoveringLRAs, verbose);
         run.add("isActiveLRA", TckTests::isActiveLRA, verbose);
+        run.add("unknownLRA", TckTests::unknownLRA, verbose);
+        run.add("isCompensatedLRA", TckTests::isCompensatedLRA, verbose);
+        run.add("isCompletedLRA", TckTests::isCompletedLRA, verbose);
+        run.addSerial("multipleCoordinators", TckTests::multipleCoordinators, verbose);
+        run.add("admissionControl", TckTests::admissionControl, verbose);
         run.add("nestedActivity", TckTests::nestedActivity, verbose);
         run.add("completeMultiLevelNestedActivity", TckTests::completeMultiLevelNestedActivity, verbose);
         run.add("compensateMultiLevelNestedActivity", TckTests::compensateMultiLevelNestedActivity, verbose);
         run.add("mixedMultiLevelNestedActivity", TckTests::mixedMultiLevelNestedActivity, verbose);
         run.add("joinLRAViaHeader", TckTests::joinLRAViaHeader, verbose);
-        run.add("join", TckTests::join, verbose);
+        run.addSerial("join", TckTests::join, verbose);
         run.add("leaveLRA", TckTests::leaveLRA, verbose);
         run.add("leaveLRAViaAPI", TckTests::leaveLRAViaAPI, verbose);
+        run.add("relocateParticipants", TckTests::relocateParticipants, verbose);
+        run.add("idempotencyKeys", TckTests::idempotencyKeys, verbose);
+        run.add("concurrentJoin", TckTests::concurrentJoin, verbose);
         run.add("dependentLRA", TckTests::dependentLRA, verbose);
         run.add("cancelOn", TckTests::cancelOn, verbose);
         run.add("cancelOnFamily", TckTests::cancelOnFamily, verbose);
-        run.add("acceptTest", TckTests::acceptTest, verbose);
-
-        run.runTests(this, testname);
+        run.addSerial("acceptTest", TckTests::acceptTest, verbose);
 
         return run;
     }
 
     private static void initTck(LRAClient lraClient) {
-        TckTests.lraClient = lraClient;
+        sharedClient = lraClient;
 
         try {
-            if (Boolean.valueOf(System.getProperty("enablePause", "true"))) {
-                System.out.println("Getting ready to connect - expecting swarm lra coordinator is already up...");
-                Thread.sleep(1000);
-            }
-
             int servicePort = Integer.getInteger("service.http.port", TEST_SWARM_PORT);
             String rcHost = System.getProperty(LRA_COORDINATOR_HOST_KEY, "localhost");
             int rcPort = Integer.getInteger(LRA_COORDINATOR_PORT_KEY, COORDINATOR_SWARM_PORT);
@@ -125,7 +209,20 @@ public class TckTests {
             micrserviceBaseUrl = new URL(String.format("http://localhost:%d", servicePort));
             rcBaseUrl = new URL(String.format("http://%s:%d", rcHost, rcPort));
 
-            lraClient.setCoordinatorURI(new URI(String.format("http://%s:%d/%s", rcHost, rcPort, coordinatorPath)));
+            coordinatorUri = new URI(String.format("http://%s:%d/%s", rcHost, rcPort, coordinatorPath));
+            sharedClient.setCoordinatorURI(coordinatorUri);
+
+            if (Boolean.valueOf(System.getProperty("enablePause", "true"))) {
+                long readyTimeout = Long.getLong(READY_TIMEOUT_KEY, READY_TIMEOUT_MILLIS);
+
+                System.out.println("Getting ready to connect - waiting for the lra coordinator to be ready...");
+
+                if (!sharedClient.awaitReady(readyTimeout, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException(String.format(
+                            "LRA coordinator %s was not ready within %d ms", coordinatorUri, readyTimeout));
+                }
+            }
+
             msClient = ClientBuilder.newClient();
             rcClient = ClientBuilder.newClient();
 
@@ -138,13 +235,22 @@ public class TckTests {
     @AfterClass
     public static void afterClass() {
         oldLRAs.clear();
-        lraClient.close();
+        sharedClient.close();
         msClient.close();
         rcClient.close();
     }
 
+    /**
+     * @return the number of coordinator calls made so far by this suite instance, from any thread
+     */
+    int getCoordinatorCalls() {
+        return coordinatorCalls.get();
+    }
+
     @Before
     public void before() {
+        lraClient = CoordinatorCallCounter.wrap(sharedClient, coordinatorCalls);
+
         try {
             msTarget = msClient.target(URI.create(new URL(micrserviceBaseUrl, "/").toExternalForm()));
             recoveryTarget = rcClient.target(URI.create(new URL(rcBaseUrl, "/").toExternalForm()));
@@ -173,6 +279,18 @@ public class TckTests {
 //        Current.popAll();
     }
 
+    @Test
+    private String coordinatorReady() throws WebApplicationException {
+        WebTarget resourcePath = rcClient.target(coordinatorUri).path(LRAClient.LRA_COORDINATOR_READY_PATH);
+
+        checkStatusAndClose(resourcePath.request().get(), Response.Status.OK.getStatusCode(), false, resourcePath);
+
+        assertTrue(lraClient.awaitReady(0L, TimeUnit.MILLISECONDS),
+                "coordinatorReady: a ready coordinator was reported as not ready", resourcePath, null);
+
+        return "passed";
+    }
+
     @Test
     private String startLRA() throws WebApplicationException {
         URL lra = lraClient.startLRA(null, "SpecTest#startLRA", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -232,9 +350,29 @@ public class TckTests {
         return "passed";
     }
 
-    //    @Test
-    private void getRecoveringLRAs() throws WebApplicationException {
-        // TODO
+    @Test
+    private String getRecoveringLRAs() throws WebApplicationException {
+        URL lra = lraClient.startLRA(null, "SpecTest#getRecoveringLRAs", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path(ACCEPT_WORK);
+
+        Response response = resourcePath
+                .request().header(LRAClient.LRA_HTTP_HEADER, lra).put(Entity.text(""));
+
+        checkStatusAndClose(response, Response.Status.OK.getStatusCode(), false, resourcePath);
+
+        // the participant responds to the complete request with 202 Accepted so the LRA may now be recovering
+        lraClient.closeLRA(lra);
+
+        lraClient.getRecoveringLRAs().forEach(info -> assertTrue(info.isRecovering(),
+                "getRecoveringLRAs: returned an LRA that is not recovering: " + info.getLraId(), resourcePath, lra));
+
+        replayRecovery();
+
+        // once the participant has reported its final status the LRA must leave the recovery index
+        assertNull(getLra(lraClient.getRecoveringLRAs(), lra.toExternalForm()),
+                "getRecoveringLRAs: lra still recovering after a recovery pass", resourcePath);
+
+        return lra.toExternalForm();
     }
 
     @Test
@@ -248,7 +386,146 @@ public class TckTests {
         return lra.toExternalForm();
     }
 
-    // the coordinator cleans up when canceled
+    /*
+     * Requires the property lra.coordinator.max.active.per.client to be set to the per client limit
+     * that the coordinator enforces. The test is skipped otherwise.
+     */
+    @Test
+    private String admissionControl() throws WebApplicationException {
+        Integer limit = Integer.getInteger(LRA_COORDINATOR_MAX_ACTIVE_PER_CLIENT_KEY);
+
+        if (limit == null) {
+            return String.format("skipped (%s is not set)", LRA_COORDINATOR_MAX_ACTIVE_PER_CLIENT_KEY);
+        }
+
+        // use a client id of our own so that LRAs started by tests running concurrently do not count
+        String clientId = "SpecTest#admissionControl-" + UUID.randomUUID();
+        List<URL> lras = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < limit; i++) {
+                lras.add(lraClient.startLRA(null, clientId, LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+
+            URL refused = null;
+
+            try {
+                refused = lraClient.startLRA(null, clientId, LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                lras.add(refused);
+            } catch (GenericLRAException e) {
+                assertTrue(e.isAdmissionRefused(),
+                        "admissionControl: LRA refused with status " + e.getStatusCode() + " instead of 503", null, null);
+            }
+
+            assertNull(refused, "admissionControl: LRA started beyond the per client limit", null);
+
+            // ending an LRA makes room for another one
+            if (!lras.isEmpty()) {
+                lraClient.closeLRA(lras.remove(0));
+                lras.add(lraClient.startLRA(null, clientId, LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+        } finally {
+            lras.forEach(lraClient::cancelLRA);
+        }
+
+        return "passed";
+    }
+
+    /*
+     * Requires the property lra.coordinator.urls to list at least two coordinators, for example
+     * two coordinators running locally on different ports. The test is skipped otherwise.
+     */
+    @Test
+    private String multipleCoordinators() throws WebApplicationException {
+        String[] urls = System.getProperty(LRA_COORDINATOR_URLS_KEY, "").split(",");
+        List<URI> coordinators = new ArrayList<>();
+
+        for (String url : urls) {
+            if (!url.trim().isEmpty()) {
+                coordinators.add(URI.create(url.trim()));
+            }
+        }
+
+        if (coordinators.size() < 2) {
+            return String.format("skipped (%s does not list multiple coordinators)", LRA_COORDINATOR_URLS_KEY);
+        }
+
+        List<URL> lras = new ArrayList<>();
+
+        try {
+            lraClient.setCoordinatorURIs(coordinators);
+
+            for (int i = 0; i < 2 * coordinators.size(); i++) {
+                lras.add(lraClient.startLRA(null, "SpecTest#multipleCoordinators" + i,
+                        LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+
+            List<LRAInfo> active = lraClient.getActiveLRAs();
+
+            for (URL lra : lras) {
+                // the LRA id must identify the coordinator that owns it
+                assertTrue(coordinators.stream().anyMatch(c -> lra.toExternalForm().startsWith(c.toString())),
+                        "multipleCoordinators: LRA was not started on a configured coordinator", null, lra);
+                assertNotNull(getLra(active, lra.toExternalForm()),
+                        "multipleCoordinators: LRA missing from the active LRAs of all coordinators", null);
+                assertTrue(lraClient.isActiveLRA(lra), "multipleCoordinators: LRA is not active", null, lra);
+            }
+
+            lras.forEach(lraClient::closeLRA);
+
+            List<LRAInfo> remaining = lraClient.getActiveLRAs();
+
+            lras.forEach(lra -> assertNull(getLra(remaining, lra.toExternalForm()),
+                    "multipleCoordinators: LRA still active after close", null));
+        } finally {
+            lraClient.setCoordinatorURI(coordinatorUri);
+        }
+
+        return "passed";
+    }
+
+    // requests concerning an LRA that the coordinator has never heard of must be rejected as not found
+    @Test
+    private String unknownLRA() throws WebApplicationException {
+        URL lra;
+        URL participant;
+
+        try {
+            lra = new URL(coordinatorUri.toString() + "/" + UUID.randomUUID());
+            participant = new URL(micrserviceBaseUrl, "/" + ACTIVITIES_PATH + "/");
+        } catch (MalformedURLException e) {
+            throw new WebApplicationException(e);
+        }
+
+        List<String> accepted = new ArrayList<>();
+
+        try {
+            lraClient.getStatus(lra);
+            accepted.add("getStatus");
+        } catch (NotFoundException expected) {
+            // the coordinator does not know the LRA
+        }
+
+        try {
+            lraClient.renewTimeLimit(lra, LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            accepted.add("renewTimeLimit");
+        } catch (NotFoundException expected) {
+            // the coordinator does not know the LRA
+        }
+
+        try {
+            lraClient.joinLRA(lra, 0L, participant, participant, participant, participant, participant, null);
+            accepted.add("joinLRA");
+        } catch (NotFoundException expected) {
+            // the coordinator does not know the LRA
+        }
+
+        assertTrue(accepted.isEmpty(), "unknownLRA: requests for an unknown LRA were not rejected: " + accepted, null, lra);
+
+        return lra.toExternalForm();
+    }
+
+    // the coordinator cleans up when canceled but must remember the outcome for a while
     @Test
     private String isCompensatedLRA() throws WebApplicationException {
         URL lra = lraClient.startLRA(null, "SpecTest#isCompensatedLRA", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -260,7 +537,7 @@ public class TckTests {
         return lra.toExternalForm();
     }
 
-    // the coordinator cleans up when completed
+    // the coordinator cleans up when completed but must remember the outcome for a while
     @Test
     private String isCompletedLRA() throws WebApplicationException {
         URL lra = lraClient.startLRA(null, "SpecTest#isCompletedLRA", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
@@ -338,9 +615,8 @@ public class TckTests {
 
     @Test
     private String joinLRAViaHeader () throws WebApplicationException {
-        int cnt1 = completedCount(true);
-
         URL lra = lraClient.startLRA(null, "SpecTest#joinLRAViaBody", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int cnt1 = completedCount(true, lra.toExternalForm());
 
         WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("work");
         Response response = resourcePath
@@ -359,7 +635,7 @@ public class TckTests {
         assertNull(getLra(lras, lra.toExternalForm()), "joinLRAViaHeader: LRA should not be active", resourcePath);
 
         // check that participant was told to complete
-        int cnt2 = completedCount(true);
+        int cnt2 = completedCount(true, lra.toExternalForm());
         assertEquals(cnt1 + 1, cnt2, "joinLRAViaHeader: wrong completion count", resourcePath);
 
         return "passed";
@@ -385,8 +661,8 @@ public class TckTests {
 
     @Test
     private String leaveLRA() throws WebApplicationException {
-        int cnt1 = completedCount(true);
         URL lra = lraClient.startLRA(null, "SpecTest#leaveLRA", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int cnt1 = completedCount(true, lra.toExternalForm());
         WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("work");
         Response response = resourcePath.request().header(LRAClient.LRA_HTTP_HEADER, lra).put(Entity.text(""));
 
@@ -407,7 +683,7 @@ public class TckTests {
         lraClient.closeLRA(lra);
 
         // check that participant was not told to complete
-        int cnt2 = completedCount(true);
+        int cnt2 = completedCount(true, lra.toExternalForm());
 
         assertEquals(cnt1, cnt2, "leaveLRA: wrong completion count", resourcePath);
 
@@ -416,8 +692,8 @@ public class TckTests {
 
     @Test
     private String leaveLRAViaAPI() throws WebApplicationException {
-        int cnt1 = completedCount(true);
         URL lra = lraClient.startLRA(null, "SpecTest#leaveLRA", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int cnt1 = completedCount(true, lra.toExternalForm());
 
         WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("work");
 
@@ -446,7 +722,7 @@ public class TckTests {
         lraClient.closeLRA(lra);
 
         // check that participant was not told to complete
-        int cnt2 = completedCount(true);
+        int cnt2 = completedCount(true, lra.toExternalForm());
 
         assertEquals(cnt1, cnt2,
                 String.format("leaveLRAViaAPI: wrong count %d versus %d", cnt1, cnt2), resourcePath);
@@ -454,6 +730,177 @@ public class TckTests {
         return "passed";
     }
 
+    @Test
+    private String relocateParticipants() throws WebApplicationException {
+        URL lra = lraClient.startLRA(null, "SpecTest#relocateParticipants", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int cnt1 = completedCount(true, lra.toExternalForm());
+
+        WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("work");
+        Response response = resourcePath.request().header(LRAClient.LRA_HTTP_HEADER, lra).put(Entity.text(""));
+        checkStatusAndClose(response, Response.Status.OK.getStatusCode(), false, resourcePath);
+
+        try {
+            // enlist a second participant as though the service was originally deployed under /moved
+            URL movedBase = new URL(micrserviceBaseUrl, "/moved/" + ACTIVITIES_PATH + "/");
+
+            lraClient.joinLRA(lra, 0L,
+                    new URL(movedBase, "compensate"), new URL(movedBase, "complete"), new URL(movedBase, "forget"),
+                    new URL(movedBase, "leave"), new URL(movedBase, "status"), null);
+
+            int relocated = lraClient.relocateParticipants(
+                    new URL(micrserviceBaseUrl, "/moved/").toURI(), new URL(micrserviceBaseUrl, "/").toURI());
+
+            assertTrue(relocated >= 1, "relocateParticipants: the moved participant was not relocated", resourcePath, lra);
+        } catch (MalformedURLException | URISyntaxException e) {
+            throw new WebApplicationException(e);
+        }
+
+        lraClient.closeLRA(lra);
+
+        // both the original and the relocated participant should have been told to complete
+        int cnt2 = completedCount(true, lra.toExternalForm());
+        assertEquals(cnt1 + 2, cnt2, "relocateParticipants: wrong completion count", resourcePath);
+
+        return lra.toExternalForm();
+    }
+
+    @Test
+    private String idempotencyKeys() throws WebApplicationException {
+        String key = UUID.randomUUID().toString();
+        URL lra = lraClient.startLRA(null, "SpecTest#idempotencyKeys", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS,
+                "start-" + key);
+
+        // a retried start must not start a second LRA
+        URL retried = lraClient.startLRA(null, "SpecTest#idempotencyKeys", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS,
+                "start-" + key);
+        assertEquals(lra.toExternalForm(), retried.toExternalForm(),
+                "idempotencyKeys: retrying startLRA started another LRA", null);
+
+        int cnt1 = completedCount(true, lra.toExternalForm());
+
+        WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("work");
+        Response response = resourcePath.request().header(LRAClient.LRA_HTTP_HEADER, lra).put(Entity.text(""));
+        checkStatusAndClose(response, Response.Status.OK.getStatusCode(), false, resourcePath);
+
+        // join via the API with endpoints of its own so that its completion is counted separately
+        String runId = UUID.randomUUID().toString();
+        String[] recoveryUrls = new String[2];
+
+        try {
+            URL base = new URL(micrserviceBaseUrl, "/" + ACTIVITIES_PATH + "/fanOut/" + runId + "/0/");
+
+            // a retried join must not enlist the participant a second time
+            for (int i = 0; i < recoveryUrls.length; i++) {
+                recoveryUrls[i] = lraClient.joinLRA(lra, 0L, new URL(base, "compensate"), new URL(base, "complete"),
+                        null, null, null, null, "join-" + key);
+            }
+        } catch (MalformedURLException e) {
+            throw new WebApplicationException(e);
+        }
+
+        assertEquals(recoveryUrls[0], recoveryUrls[1], "idempotencyKeys: retrying joinLRA returned another recovery URL", null);
+
+        lraClient.closeLRA(lra, "close-" + key);
+
+        // a retried close must return the original response even though the LRA has gone
+        lraClient.closeLRA(lra, "close-" + key);
+
+        // the participant that joined via the annotation completes once
+        int cnt2 = completedCount(true, lra.toExternalForm());
+        assertEquals(cnt1 + 1, cnt2, "idempotencyKeys: wrong completion count", resourcePath);
+
+        // and so does the participant that joined via the API
+        WebTarget fanOutPath = msTarget.path(ACTIVITIES_PATH).path("fanOut").path(runId);
+        response = fanOutPath.request().get();
+        String callbacks = checkStatusAndClose(response, Response.Status.OK.getStatusCode(), true, fanOutPath);
+        assertEquals("0", callbacks, "idempotencyKeys: the participant that joined twice was not completed once", fanOutPath);
+
+        return lra.toExternalForm();
+    }
+
+    /*
+     * Enlist many participants with one LRA concurrently. Each must be enlisted exactly once and,
+     * when the LRA is cancelled, asked to compensate exactly once and before any participant that
+     * had already enlisted when it began to enlist.
+     */
+    @Test
+    private String concurrentJoin() throws WebApplicationException {
+        URL lra = lraClient.startLRA(null, "SpecTest#concurrentJoin", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        String runId = UUID.randomUUID().toString();
+        long[] joining = new long[CONCURRENT_PARTICIPANTS];
+        long[] joined = new long[CONCURRENT_PARTICIPANTS];
+        Set<String> recoveryUrls = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_JOIN_THREADS);
+
+        try {
+            URL base = new URL(micrserviceBaseUrl, "/" + ACTIVITIES_PATH + "/fanOut/" + runId + "/");
+            List<Future<?>> joins = new ArrayList<>();
+
+            for (int i = 0; i < CONCURRENT_PARTICIPANTS; i++) {
+                int participant = i;
+
+                joins.add(executor.submit(() -> {
+                    URL participantUrl = new URL(base, participant + "/");
+
+                    joining[participant] = System.nanoTime();
+                    recoveryUrls.add(lraClient.joinLRA(lra, 0L, new URL(participantUrl, "compensate"),
+                            new URL(participantUrl, "complete"), null, null, null, null));
+                    joined[participant] = System.nanoTime();
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> join : joins) {
+                join.get();
+            }
+
+            assertEquals(CONCURRENT_PARTICIPANTS, recoveryUrls.size(),
+                    "concurrentJoin: participants were not given distinct recovery URLs", null);
+        } catch (MalformedURLException e) {
+            throw new WebApplicationException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebApplicationException(e);
+        } catch (ExecutionException e) {
+            throw new WebApplicationException("concurrentJoin: joinLRA failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            // cancelling the LRA is also what asks the participants to compensate
+            lraClient.cancelLRA(lra);
+        }
+
+        WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("fanOut").path(runId);
+        Response response = resourcePath.request().get();
+        String callbacks = checkStatusAndClose(response, Response.Status.OK.getStatusCode(), true, resourcePath);
+        int[] order = callbacks.isEmpty()
+                ? new int[0] : Arrays.stream(callbacks.split(",")).mapToInt(Integer::parseInt).toArray();
+        Set<Integer> compensated = new HashSet<>();
+
+        for (int participant : order) {
+            assertTrue(compensated.add(participant),
+                    "concurrentJoin: participant " + participant + " was asked to compensate more than once", resourcePath, lra);
+        }
+
+        assertEquals(CONCURRENT_PARTICIPANTS, compensated.size(),
+                "concurrentJoin: wrong number of participants asked to compensate", resourcePath);
+
+        // a participant that had enlisted before another began to enlist must compensate after it
+        long latestJoining = Long.MIN_VALUE;
+
+        for (int i = order.length - 1; i >= 0; i--) {
+            int participant = order[i];
+
+            assertTrue(joined[participant] >= latestJoining,
+                    "concurrentJoin: participant " + participant
+                            + " compensated before a participant that enlisted after it", resourcePath, lra);
+
+            latestJoining = Math.max(latestJoining, joining[participant]);
+        }
+
+        return lra.toExternalForm();
+    }
+
     @Test
     private String dependentLRA() throws WebApplicationException {
         // call a method annotated with NOT_SUPPORTED but one which programatically starts an LRA and returns it via a header
@@ -496,7 +943,8 @@ public class TckTests {
 
     @Test
     private String timeLimit() {
-        int[] cnt1 = {completedCount(true), completedCount(false)};
+        // the LRA is started by the resource so its participant cannot have been invoked beforehand
+        int[] cnt1 = {0, 0};
         Response response = null;
 
         try {
@@ -505,14 +953,14 @@ public class TckTests {
                     .request()
                     .get();
 
-            checkStatusAndClose(response, -1, true, resourcePath);
+            String lraId = checkStatusAndClose(response, -1, true, resourcePath);
 
             // Note that the timeout firing will cause the coordinator to compensate
             // the LRA so it may no longer exist
             // (depends upon how long the coordinator keeps a record of finished LRAs
 
             // check that participant was invoked
-            int[] cnt2 = {completedCount(true), completedCount(false)};
+            int[] cnt2 = {completedCount(true, lraId), completedCount(false, lraId)};
 
             /*
              * The call to activities/timeLimit should have started an LRA whch should have timed out
@@ -589,14 +1037,7 @@ public class TckTests {
             lraClient.cancelLRA(lra);
 
         if (waitForRecovery) {
-            String recoveryPath = System.getProperty(LRA_RECOVERY_PATH_KEY, "lra-recovery-coordinator");
-            // trigger a recovery scan which trigger a replay attempt on any participants
-            // that have responded to complete/compensate requests with Response.Status.ACCEPTED
-            resourcePath = recoveryTarget.path(recoveryPath).path("recovery");
-            Response response2 = resourcePath
-                    .request().get();
-
-            checkStatusAndClose(response2, Response.Status.OK.getStatusCode(), false, resourcePath);
+            resourcePath = replayRecovery();
         }
 
         int countAfter = lraClient.getActiveLRAs().size();
@@ -604,8 +1045,24 @@ public class TckTests {
         assertEquals(countBefore, countAfter, "joinAndEnd: wrong LRA count", resourcePath);
     }
 
+    /*
+     * trigger a recovery scan which trigger a replay attempt on any participants
+     * that have responded to complete/compensate requests with Response.Status.ACCEPTED
+     */
+    private WebTarget replayRecovery() {
+        String recoveryPath = System.getProperty(LRA_RECOVERY_PATH_KEY, "lra-recovery-coordinator");
+        WebTarget resourcePath = recoveryTarget.path(recoveryPath).path("recovery");
+        Response response = resourcePath
+                .request().get();
+
+        checkStatusAndClose(response, Response.Status.OK.getStatusCode(), false, resourcePath);
+
+        return resourcePath;
+    }
+
     private void renewTimeLimit() {
-        int[] cnt1 = {completedCount(true), completedCount(false)};
+        // the LRA is started by the resource so its participant cannot have been invoked beforehand
+        int[] cnt1 = {0, 0};
         Response response = null;
 
         try {
@@ -616,10 +1073,10 @@ public class TckTests {
                     .request()
                     .get();
 
-            checkStatusAndClose(response, -1, true, resourcePath);
+            String lraId = checkStatusAndClose(response, -1, true, resourcePath);
 
             // check that participant was invoked
-            int[] cnt2 = {completedCount(true), completedCount(false)};
+            int[] cnt2 = {completedCount(true, lraId), completedCount(false, lraId)};
 
             /*
              * The call to activities/timeLimit should have started an LRA whch should not have timed out
@@ -657,13 +1114,36 @@ public class TckTests {
         return null;
     }
 
-    private int completedCount(boolean completed) {
+    /*
+     * The number of times the TCK participant was asked to complete (or compensate) in the context of
+     * any of the given LRAs or, if none are given, in the context of any LRA. Tests that can run
+     * concurrently with other tests must only count the LRAs that they use.
+     */
+    private int completedCount(boolean completed, String... lraIds) {
+        if (lraIds.length == 0) {
+            return completedCount(completed, (String) null);
+        }
+
+        int count = 0;
+
+        for (String lraId : lraIds) {
+            count += completedCount(completed, lraId);
+        }
+
+        return count;
+    }
+
+    private int completedCount(boolean completed, String lraId) {
         Response response = null;
         String path = completed ? "completedactivitycount" : "compensatedactivitycount";
 
         try {
             WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path(path);
 
+            if (lraId != null) {
+                resourcePath = resourcePath.queryParam("lraId", lraId);
+            }
+
             response = resourcePath.request().get();
 
             assertEquals(Response.Status.OK.getStatusCode(),
@@ -683,13 +1163,12 @@ public class TckTests {
     private String multiLevelNestedActivity(CompletionType how, int nestedCnt) throws WebApplicationException {
         WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path("multiLevelNestedActivity");
 
-        int[] cnt1 = {completedCount(true), completedCount(false)};
-
         if (how == CompletionType.mixed && nestedCnt <= 1)
             how = CompletionType.complete;
 
         URL lra = lraClient.startLRA(null, "SpecTest#multiLevelNestedActivity", LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
         String lraId = lra.toString();
+        int[] cnt1 = {completedCount(true, lraId), completedCount(false, lraId)};
 
         Response response = resourcePath
                 .queryParam("nestedCnt", nestedCnt)
@@ -724,7 +1203,8 @@ public class TckTests {
         // and the mandatory lra seen by the multiLevelNestedActivity method
         assertNotNull(getLra(lras, lraArray[0]), "lra should have been found", resourcePath);
 
-        int[] cnt2 = {completedCount(true), completedCount(false)};
+        // count the participants of the top level and the nested LRAs
+        int[] cnt2 = {completedCount(true, lraArray), completedCount(false, lraArray)};
 
         // check that both nested activities were told to complete
         assertEquals(cnt1[0] + nestedCnt, cnt2[0], "multiLevelNestedActivity: step 3", resourcePath);
@@ -761,7 +1241,7 @@ public class TckTests {
         IntStream.rangeClosed(0, nestedCnt).forEach(i -> assertNull(getLra(lras2, lraArray[i]),
                         "multiLevelNestedActivity: top level or nested activity still active", resourcePath));
 
-        int[] cnt3 = {completedCount(true), completedCount(false)};
+        int[] cnt3 = {completedCount(true, lraArray), completedCount(false, lraArray)};
 
         if (how == CompletionType.complete) {
             // make sure that all nested activities were not told to complete or cancel a second time
@@ -801,8 +1281,8 @@ public class TckTests {
     }
 
     private void cancelCheck(String path) {
-        int[] cnt1 = {completedCount(true), completedCount(false)};
         URL lra = lraClient.startLRA(null, "SpecTest#" + path, LRA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int[] cnt1 = {completedCount(true, lra.toExternalForm()), completedCount(false, lra.toExternalForm())};
         Response response = null;
 
         WebTarget resourcePath = msTarget.path(ACTIVITIES_PATH).path(path);
@@ -816,7 +1296,7 @@ public class TckTests {
             checkStatusAndClose(response, Response.Status.BAD_REQUEST.getStatusCode(), true, resourcePath);
 
             // check that participant was invoked
-            int[] cnt2 = {completedCount(true), completedCount(false)};
+            int[] cnt2 = {completedCount(true, lra.toExternalForm()), completedCount(false, lra.toExternalForm())};
 
             // check that complete was not called and that compensate was
             assertEquals(cnt1[0], cnt2[0], "complete was called instead of compensate", resourcePath);
@@ -846,15 +1326,21 @@ public class TckTests {
 //        assert condition;
 
         if (!condition) {
-            throw new GenericLRAException(lra, 0, target.getUri().toString() + ": " + reason, null);
+            if (target == null)
+                throw new GenericLRAException(lra, 0, reason, null);
+            else
+                throw new GenericLRAException(lra, 0, target.getUri().toString() + ": " + reason, null);
         }
     }
 
     static private <T> void assertEquals(T expected, T actual, String reason, WebTarget target) {
 //        assert expected.equals(actual);
 
-        if (!expected.equals(actual)) {
-            throw new GenericLRAException(null, 0, target.getUri().toString() + ": " + reason, null);
+        if (!Objects.equals(expected, actual)) {
+            if (target == null)
+                throw new GenericLRAException(null, 0, reason, null);
+            else
+                throw new GenericLRAException(null, 0, target.getUri().toString() + ": " + reason, null);
         }
     }
     static private void fail(String msg) {
@@ -34,7 +34,10 @@ import org.eclipse.microprofile.lra.annotation.TimeLimit;
 import org.eclipse.microprofile.lra.client.IllegalLRAStateException;
 import org.eclipse.microprofile.lra.tck.participant.model.Activity;
 import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.spi.LRAClockProvider;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.DELETE;
@@ -48,6 +51,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Context;
@@ -59,8 +63,12 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
@@ -84,12 +92,39 @@ public class ActivityController {
     private static final AtomicInteger COMPLETED_COUNT = new AtomicInteger(0);
     private static final AtomicInteger COMPENSATED_COUNT = new AtomicInteger(0);
 
+    // the same counts per LRA so that tests running concurrently do not see each others participants
+    private static final String COUNTS_CAPACITY_KEY = "lra.tck.participant.counts.capacity";
+    private static final int DEFAULT_COUNTS_CAPACITY = 100_000;
+    private static final Map<String, AtomicInteger> COMPLETED_COUNTS = boundedCounts();
+    private static final Map<String, AtomicInteger> COMPENSATED_COUNTS = boundedCounts();
+
+    // the order in which the coordinator called the participants of each run of the concurrentJoin test.
+    // A run's calls are discarded when they are read, and the runs that are never read (because the
+    // test failed before reading them) are bounded in the same way as the counts
+    private static final String FAN_OUT_CAPACITY_KEY = "lra.tck.participant.fanout.capacity";
+    private static final int DEFAULT_FAN_OUT_CAPACITY = 1000;
+    private static final Map<String, Queue<String>> FAN_OUT_CALLBACKS =
+            boundedMap(FAN_OUT_CAPACITY_KEY, DEFAULT_FAN_OUT_CAPACITY, "participant calls of run");
+
     @Context
     private UriInfo context;
 
     @Inject
     private ActivityService activityService;
 
+    // JAX-RS clients are expensive to create and thread safe so share one (and its connections) for all invocations
+    private Client client;
+
+    @PostConstruct
+    private void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @PreDestroy
+    private void tearDown() {
+        client.close();
+    }
+
     /**
      * Performing a GET on the participant URL will return the current status of the
      * participant {@link CompensatorStatus}, or 404 if the participant is no longer present.
@@ -104,19 +139,32 @@ public class ActivityController {
     @Status
     @LRA(LRA.Type.NOT_SUPPORTED)
     public Response status(@HeaderParam(LRA_HTTP_HEADER) String lraId) throws NotFoundException {
-        Activity activity = activityService.getActivity(lraId);
+        Activity activity;
+
+        try {
+            activity = activityService.getActivity(lraId);
+        } catch (NotFoundException e) {
+            // the activity may have been evicted but its outcome must still be reported until it is forgotten
+            CompensatorStatus outcome = activityService.getOutcome(lraId);
+
+            if (outcome == null) {
+                throw e;
+            }
+
+            return Response.ok(outcome.name()).build();
+        }
 
         if (activity.getStatus() == null) {
             throw new IllegalLRAStateException(lraId, "getStatus", "LRA is not active");
         }
 
         if (activity.getAndDecrementAcceptCount() <= 0) {
-            if (activity.getStatus() == CompensatorStatus.Completing) {
-                activity.setStatus(CompensatorStatus.Completed);
-            }
-            else if (activity.getStatus() == CompensatorStatus.Compensating) {
-                activity.setStatus(CompensatorStatus.Compensated);
+            // concurrent status requests may race to finish the activity so only move it on if it is still in progress
+            if (!activity.compareAndSetStatus(CompensatorStatus.Completing, CompensatorStatus.Completed)) {
+                activity.compareAndSetStatus(CompensatorStatus.Compensating, CompensatorStatus.Compensated);
             }
+
+            activityService.recordOutcome(lraId, activity.getStatus());
         }
 
         return Response.ok(activity.getStatus().name()).build();
@@ -175,7 +223,7 @@ public class ActivityController {
     @Complete
     public Response completeWork(@HeaderParam(LRA_HTTP_HEADER) String lraId, String userData)
         throws NotFoundException {
-        COMPLETED_COUNT.incrementAndGet();
+        incrementCount(COMPLETED_COUNT, COMPLETED_COUNTS, lraId);
 
         assertHeaderPresent(lraId); // the TCK expects the coordinator to invoke @Complete methods
 
@@ -187,6 +235,7 @@ public class ActivityController {
             activity.setStatus(CompensatorStatus.Completing);
             activity.setStatusUrl(String.format("%s/%s/%s/status", context.getBaseUri(),
                     ACTIVITIES_PATH, lraId));
+            activityService.recordOutcome(lraId, CompensatorStatus.Completing);
 
             return Response.accepted().location(URI.create(activity.getStatusUrl())).build();
         }
@@ -207,7 +256,7 @@ public class ActivityController {
 
         assertHeaderPresent(lraId); // the TCK expects the coordinator to invoke @Compensate methods
 
-        COMPENSATED_COUNT.incrementAndGet();
+        incrementCount(COMPENSATED_COUNT, COMPENSATED_COUNTS, lraId);
 
         Activity activity = activityService.getActivity(lraId);
 
@@ -217,6 +266,7 @@ public class ActivityController {
             activity.setStatus(CompensatorStatus.Compensating);
             activity.setStatusUrl(String.format("%s/%s/%s/status", context.getBaseUri(),
                     ACTIVITIES_PATH, lraId));
+            activityService.recordOutcome(lraId, CompensatorStatus.Compensating);
 
             return Response.accepted().location(URI.create(activity.getStatusUrl())).build();
         }
@@ -233,7 +283,7 @@ public class ActivityController {
     @Produces(MediaType.APPLICATION_JSON)
     @Forget
     public Response forgetWork(@HeaderParam(LRA_HTTP_HEADER) String lraId) {
-        COMPLETED_COUNT.incrementAndGet();
+        incrementCount(COMPLETED_COUNT, COMPLETED_COUNTS, lraId);
 
         assertHeaderPresent(lraId); // the TCK expects the coordinator to invoke @Forget methods
 
@@ -319,7 +369,7 @@ public class ActivityController {
 
     private String restPutInvocation(URL lraURL, String path, String bodyText) {
         String id = null;
-        Response response = ClientBuilder.newClient()
+        Response response = client
                 .target(context.getBaseUri())
                 .path("activities")
                 .path(path)
@@ -385,19 +435,13 @@ public class ActivityController {
     private Activity addWork(String lraId, String rcvId) {
         System.out.printf("ActivityController: work id %s and rcvId %s %n", lraId, rcvId);
 
-        try {
-            return activityService.getActivity(lraId);
-        }
-        catch (NotFoundException e) {
-            Activity activity = new Activity(lraId);
+        Activity activity = new Activity(lraId);
 
-            activity.setRcvUrl(rcvId);
-            activity.setStatus(null);
+        activity.setRcvUrl(rcvId);
+        activity.setStatus(null);
 
-            activityService.add(activity);
-
-            return activity;
-        }
+        // the same LRA may be joined by concurrent requests so only the first one adds the activity
+        return activityService.addIfAbsent(activity);
     }
 
     @GET
@@ -413,16 +457,67 @@ public class ActivityController {
     @Path("/completedactivitycount")
     @Produces(MediaType.APPLICATION_JSON)
     @LRA(LRA.Type.NOT_SUPPORTED)
-    public Response getCompletedCount() {
-        return Response.ok(COMPLETED_COUNT.get()).build();
+    public Response getCompletedCount(@QueryParam("lraId") String lraId) {
+        return Response.ok(getCount(COMPLETED_COUNT, COMPLETED_COUNTS, lraId)).build();
     }
 
     @GET
     @Path("/compensatedactivitycount")
     @Produces(MediaType.APPLICATION_JSON)
     @LRA(LRA.Type.NOT_SUPPORTED)
-    public Response getCompensatedCount() {
-        return Response.ok(COMPENSATED_COUNT.get()).build();
+    public Response getCompensatedCount(@QueryParam("lraId") String lraId) {
+        return Response.ok(getCount(COMPENSATED_COUNT, COMPENSATED_COUNTS, lraId)).build();
+    }
+
+    /*
+     * The counts of the most recently counted LRAs. The counts are read several times while a test runs
+     * so, rather than being discarded when read, the oldest are dropped once there are more than
+     * COUNTS_CAPACITY_KEY of them (which bounds them during stress and parallel runs). The
+     * bound is independent of, and by default much larger than, the number of activities the participant
+     * keeps since a test that reads the count of an evicted LRA would see 0, so an eviction is logged.
+     */
+    private static Map<String, AtomicInteger> boundedCounts() {
+        return boundedMap(COUNTS_CAPACITY_KEY, DEFAULT_COUNTS_CAPACITY, "count for LRA");
+    }
+
+    // a map that logs and discards its least recently used entry once it holds more than the configured number
+    private static <V> Map<String, V> boundedMap(String capacityKey, int defaultCapacity, String entryName) {
+        int capacity = Integer.getInteger(capacityKey, defaultCapacity);
+
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+
+                LOGGER.warning(String.format("discarding the %s %s since there are more than %d (see %s)",
+                        entryName, eldest.getKey(), capacity, capacityKey));
+
+                return true;
+            }
+        });
+    }
+
+    private static void incrementCount(AtomicInteger total, Map<String, AtomicInteger> counts, String lraId) {
+        total.incrementAndGet();
+
+        if (lraId != null) {
+            counts.computeIfAbsent(lraId, id -> new AtomicInteger(0)).incrementAndGet();
+        }
+    }
+
+    // the count for a single LRA or, if lraId is null, the count for all LRAs
+    private static int getCount(AtomicInteger total, Map<String, AtomicInteger> counts, String lraId) {
+        if (lraId == null) {
+            return total.get();
+        }
+
+        AtomicInteger count = counts.get(lraId);
+
+        return count == null ? 0 : count.get();
     }
 
     @GET
@@ -460,12 +555,14 @@ public class ActivityController {
         activityService.add(new Activity(lraId));
 
         try {
-            Thread.sleep(300); // sleep for 200 miliseconds (should be longer than specified in the @TimeLimit annotation)
+            // sleep for 300 miliseconds (should be longer than specified in the @TimeLimit annotation)
+            LRAClockProvider.getClock().sleep(300, TimeUnit.MILLISECONDS);
         }
         catch (InterruptedException e) {
             e.printStackTrace();
         }
-        return Response.status(Response.Status.OK).entity(Entity.text("Simulate buisiness logic timeoout")).build();
+        // return the LRA that the resource started so that the caller can check what happened to it
+        return Response.ok(lraId).build();
     }
 
     @GET
@@ -486,12 +583,13 @@ public class ActivityController {
              */
             lraClient.renewTimeLimit(lraToURL(lraId, "Invalid LRA id"), 300, TimeUnit.MILLISECONDS);
             // sleep for 200000 micro seconds (should be longer than specified in the @TimeLimit annotation)
-            Thread.sleep(200);
+            LRAClockProvider.getClock().sleep(200, TimeUnit.MILLISECONDS);
         }
         catch (InterruptedException e) {
             e.printStackTrace();
         }
-        return Response.status(Response.Status.OK).entity(Entity.text("Simulate buisiness logic timeoout")).build();
+        // return the LRA that the resource started so that the caller can check what happened to it
+        return Response.ok(lraId).build();
     }
 
     /**
@@ -569,6 +667,48 @@ public class ActivityController {
         return CompensatorStatus.Compensated.name();
     }
 
+    /**
+     * Participants enlisted directly via the {@link LRAClient} by the concurrentJoin test. Each
+     * participant has its own URLs, and the calls made to them are recorded in the order in which
+     * they arrive.
+     *
+     * @param runId the id of the test run that enlisted the participant
+     * @param participantId the id of the participant within the run
+     * @return the final status of the participant
+     */
+    @PUT
+    @Path("/fanOut/{RunId}/{ParticipantId}/compensate")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response compensateFanOut(@PathParam("RunId") String runId, @PathParam("ParticipantId") String participantId) {
+        FAN_OUT_CALLBACKS.computeIfAbsent(runId, id -> new ConcurrentLinkedQueue<>()).add(participantId);
+
+        return Response.ok(CompensatorStatus.Compensated.name()).build();
+    }
+
+    @PUT
+    @Path("/fanOut/{RunId}/{ParticipantId}/complete")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response completeFanOut(@PathParam("RunId") String runId, @PathParam("ParticipantId") String participantId) {
+        FAN_OUT_CALLBACKS.computeIfAbsent(runId, id -> new ConcurrentLinkedQueue<>()).add(participantId);
+
+        return Response.ok(CompensatorStatus.Completed.name()).build();
+    }
+
+    /**
+     * @param runId the id of a run of the concurrentJoin or idempotencyKeys test
+     * @return a comma separated list of the participants of the run in the order in which they were
+     * called (the calls are forgotten once they have been reported)
+     */
+    @GET
+    @Path("/fanOut/{RunId}")
+    @Produces(MediaType.TEXT_PLAIN)
+    @LRA(LRA.Type.NOT_SUPPORTED)
+    public Response getFanOutCallbacks(@PathParam("RunId") String runId) {
+        Queue<String> callbacks = FAN_OUT_CALLBACKS.remove(runId);
+
+        return Response.ok(callbacks == null ? "" : String.join(",", callbacks)).build();
+    }
+
     private void checkStatusAndClose(Response response, int expected) {
         try {
             if (response.getStatus() != expected)
@@ -20,17 +20,20 @@
 package org.eclipse.microprofile.lra.tck.participant.model;
 
 import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.participant.ParticipantState;
 
 import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class Activity implements Serializable {
-    private String id;
-    private String rcvUrl;
-    private String statusUrl;
-    private CompensatorStatus status;
-    private String userData;
-    private String endData;
+    private volatile String id;
+    private volatile String rcvUrl;
+    private volatile String statusUrl;
+    private final ParticipantState state = new ParticipantState();
+    private volatile String userData;
+    private volatile String endData;
+    private transient volatile Consumer<Activity> statusListener;
 
     private final AtomicInteger acceptedCount = new AtomicInteger(0);
 
@@ -63,11 +66,45 @@ public class Activity implements Serializable {
     }
 
     public CompensatorStatus getStatus() {
-        return status;
+        return state.getStatus();
     }
 
+    // forces the status regardless of the state model (the TCK uses this to force particular outcomes)
     public void setStatus(CompensatorStatus status) {
-        this.status = status;
+        state.set(status);
+        statusChanged();
+    }
+
+    /**
+     * Atomically move the activity from one status to another
+     *
+     * @param expect the status that the activity is expected to be in
+     * @param update the new status
+     * @return false if the activity was not in the expected status (and the status was left unchanged)
+     */
+    public boolean compareAndSetStatus(CompensatorStatus expect, CompensatorStatus update) {
+        if (!state.compareAndSet(expect, update)) {
+            return false;
+        }
+
+        statusChanged();
+
+        return true;
+    }
+
+    /**
+     * @param statusListener called after every change to the status of the activity
+     */
+    public void setStatusListener(Consumer<Activity> statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    private void statusChanged() {
+        Consumer<Activity> listener = statusListener;
+
+        if (listener != null) {
+            listener.accept(this);
+        }
     }
 
     @Override
@@ -19,25 +19,78 @@
  *******************************************************************************/
 package org.eclipse.microprofile.lra.tck.participant.service;
 
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.participant.OutcomeStore;
 import org.eclipse.microprofile.lra.tck.participant.model.Activity;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Holds the activities that the TCK participant is taking part in. The store is safe for concurrent
+ * use and is bounded (by the system property {@value #CAPACITY_KEY}) so that the participant can be
+ * used in long running load tests: when it is full, the activity that finished (completed or
+ * compensated) longest ago is evicted to make room for a new one. Activities that have not finished
+ * are never evicted; if the store is full of them new activities are refused with
+ * <code>503 Service Unavailable</code>.
+ *
+ * Outcomes that the participant must remember until it is told to forget them are kept separately,
+ * in an {@link OutcomeStore}, so they are not lost when an activity is evicted. If the system property
+ * {@value #OUTCOMES_FILE_KEY} is set the outcomes are kept in that file.
+ */
 @ApplicationScoped
 public class ActivityService {
-    private Map<String, Activity> activities = new HashMap<>();
+    public static final String CAPACITY_KEY = "lra.tck.participant.capacity";
+    public static final String OUTCOMES_FILE_KEY = "lra.tck.participant.outcomes.file";
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final int capacity = Integer.getInteger(CAPACITY_KEY, DEFAULT_CAPACITY);
+    private OutcomeStore outcomes;
+    private final ConcurrentMap<String, Activity> activities = new ConcurrentHashMap<>();
+    // the ids of the activities that have finished, in the order in which they finished
+    private final Set<String> finished = new LinkedHashSet<>();
+
+    @PostConstruct
+    private void setup() {
+        String outcomesFile = System.getProperty(OUTCOMES_FILE_KEY);
+
+        if (outcomesFile == null) {
+            outcomes = new InMemoryOutcomeStore();
+        } else {
+            try {
+                outcomes = new MappedOutcomeStore(Paths.get(outcomesFile), 2 * capacity);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    private void tearDown() {
+        outcomes.close();
+    }
 
     public Activity getActivity(String txId) throws NotFoundException {
-        if (!activities.containsKey(txId))
+        Activity activity = activities.get(txId);
+
+        if (activity == null)
             throw new NotFoundException(Response.status(404).entity("Invalid activity id: " + txId).build());
 
-        return activities.get(txId);
+        return activity;
     }
 
     public List<Activity> findAll() {
@@ -45,10 +98,121 @@ public class ActivityService {
     }
 
     public void add(Activity activity) {
-        activities.putIfAbsent(activity.getId(), activity);
+        addIfAbsent(activity);
+    }
+
+    /**
+     * Add an activity unless one with the same id is already present
+     *
+     * @param activity the activity to add
+     * @return the activity that is now associated with the id
+     */
+    public Activity addIfAbsent(Activity activity) {
+        Activity existing = activities.get(activity.getId());
+
+        if (existing != null) {
+            return existing;
+        }
+
+        // concurrent additions may take the store slightly beyond its capacity
+        if (activities.size() >= capacity && !evictFinished()) {
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("The participant is already taking part in " + capacity + " unfinished activities").build());
+        }
+
+        activity.setStatusListener(this::statusChanged);
+        existing = activities.putIfAbsent(activity.getId(), activity);
+
+        if (existing != null) {
+            activity.setStatusListener(null);
+            return existing;
+        }
+
+        statusChanged(activity);
+
+        return activity;
     }
 
     public void remove(String id) {
         activities.remove(id);
+        outcomes.forget(id);
+
+        synchronized (finished) {
+            finished.remove(id);
+        }
+    }
+
+    /**
+     * Remember the outcome of an activity that has not finished successfully. Finishing
+     * successfully discards the outcome since there is then nothing to remember.
+     *
+     * @param id the id of the activity
+     * @param status the current status of the activity
+     */
+    public void recordOutcome(String id, CompensatorStatus status) {
+        if (isFinished(status)) {
+            outcomes.forget(id);
+        } else {
+            outcomes.put(id, status);
+        }
+    }
+
+    /**
+     * @param id the id of the activity
+     * @return the remembered outcome of the activity or null if there is none
+     */
+    public CompensatorStatus getOutcome(String id) {
+        return outcomes.get(id);
+    }
+
+    // keep track of which activities may be evicted
+    private void statusChanged(Activity activity) {
+        String id = activity.getId();
+
+        synchronized (finished) {
+            if (activities.get(id) != activity) {
+                return;
+            }
+
+            if (isFinished(activity.getStatus())) {
+                finished.add(id);
+            } else {
+                finished.remove(id);
+            }
+        }
+    }
+
+    // evict the activity that finished longest ago returning false if no activity has finished
+    private boolean evictFinished() {
+        while (true) {
+            String id;
+
+            synchronized (finished) {
+                Iterator<String> oldest = finished.iterator();
+
+                if (!oldest.hasNext()) {
+                    return false;
+                }
+
+                id = oldest.next();
+                oldest.remove();
+            }
+
+            // the activity may have been replaced, or its status forced back, since it finished
+            boolean[] evicted = {false};
+
+            activities.computeIfPresent(id, (key, activity) -> {
+                evicted[0] = isFinished(activity.getStatus());
+                return evicted[0] ? null : activity;
+            });
+
+            if (evicted[0]) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean isFinished(CompensatorStatus status) {
+        return status == CompensatorStatus.Completed || status == CompensatorStatus.Compensated;
     }
 }
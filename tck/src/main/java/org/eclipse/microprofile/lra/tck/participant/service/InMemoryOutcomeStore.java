@@ -0,0 +1,60 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck.participant.service;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.participant.OutcomeStore;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link OutcomeStore} that keeps outcomes on the heap. Outcomes do not survive
+ * a restart of the JVM so this store is only suitable for participants whose work
+ * is not itself durable (or for testing).
+ */
+public class InMemoryOutcomeStore implements OutcomeStore {
+    private final ConcurrentMap<String, CompensatorStatus> outcomes = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String lraId, CompensatorStatus status) {
+        outcomes.put(lraId, status);
+    }
+
+    @Override
+    public CompensatorStatus get(String lraId) {
+        return outcomes.get(lraId);
+    }
+
+    @Override
+    public boolean forget(String lraId) {
+        return outcomes.remove(lraId) != null;
+    }
+
+    @Override
+    public int size() {
+        return outcomes.size();
+    }
+
+    @Override
+    public void close() {
+        outcomes.clear();
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck.participant.service;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.eclipse.microprofile.lra.participant.OutcomeStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An {@link OutcomeStore} backed by a memory mapped file so that outcomes survive a
+ * restart of the participant. The file holds a fixed size, open addressing hash table
+ * (with linear probing) of fixed size slots, one per outcome, so lookups take constant
+ * time and the store does not allocate memory per outcome. Outcomes are visible in the
+ * file as soon as they are recorded, and so survive the JVM failing, but are only guaranteed
+ * to be on stable storage once the operating system writes them or the store is
+ * {@link #flush() flushed} or {@link #close() closed}.
+ *
+ * The number of slots is fixed when the file is created. Probe sequences become long as
+ * the table fills so the capacity should be comfortably larger (say, twice) the number of
+ * outcomes that the participant expects to be pending at any one time. The mapped file
+ * cannot exceed 2GB which, with the default maximum LRA id length, is around eight
+ * million slots.
+ *
+ * Forgetting an outcome moves back any later outcomes in its probe sequence rather than
+ * leaving a marker in its slot, so lookups do not slow down as outcomes are recorded and
+ * forgotten.
+ */
+public class MappedOutcomeStore implements OutcomeStore {
+    /**
+     * The maximum length, in UTF-8 bytes, of the LRA ids that the store accepts unless
+     * another length is specified when it is created
+     */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 248;
+
+    private static final int MAGIC = 0x4C52414F;
+    private static final int HEADER_SIZE = 16;
+
+    // the layout of a slot: state, status ordinal, key length, key hash then the key itself
+    private static final int STATE_OFFSET = 0;
+    private static final int STATUS_OFFSET = 1;
+    private static final int LENGTH_OFFSET = 2;
+    private static final int HASH_OFFSET = 4;
+    private static final int KEY_OFFSET = 8;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+
+    private static final CompensatorStatus[] STATUSES = CompensatorStatus.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int maxKeyLength;
+    private final int slotSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private boolean closed;
+
+    /**
+     * Open, or create, a store that accepts LRA ids of up to {@link #DEFAULT_MAX_KEY_LENGTH} bytes
+     *
+     * @param file the file holding the outcomes
+     * @param capacity the number of outcomes that a new file can hold
+     * @throws IOException if the file cannot be opened or was created with a different layout
+     */
+    public MappedOutcomeStore(Path file, int capacity) throws IOException {
+        this(file, capacity, DEFAULT_MAX_KEY_LENGTH);
+    }
+
+    /**
+     * Open, or create, a store
+     *
+     * @param file the file holding the outcomes
+     * @param capacity the number of outcomes that a new file can hold
+     * @param maxKeyLength the maximum length, in UTF-8 bytes, of the LRA ids that the store accepts
+     * @throws IOException if the file cannot be opened or was created with a different layout
+     */
+    public MappedOutcomeStore(Path file, int capacity, int maxKeyLength) throws IOException {
+        if (capacity <= 0 || maxKeyLength <= 0 || maxKeyLength > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid capacity or maximum key length");
+        }
+
+        long fileSize = HEADER_SIZE + (long) capacity * (KEY_OFFSET + maxKeyLength);
+
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("an outcome store of capacity " + capacity + " cannot be mapped");
+        }
+
+        this.capacity = capacity;
+        this.maxKeyLength = maxKeyLength;
+        this.slotSize = KEY_OFFSET + maxKeyLength;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            boolean created = channel.size() == 0;
+
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, capacity);
+                buffer.putInt(8, maxKeyLength);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != capacity || buffer.getInt(8) != maxKeyLength) {
+                throw new IOException(file + " is not an outcome store with capacity " + capacity
+                        + " and maximum key length " + maxKeyLength);
+            } else {
+                for (int i = 0; i < capacity; i++) {
+                    if (buffer.get(slot(i) + STATE_OFFSET) == USED) {
+                        size++;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(String lraId, CompensatorStatus status) {
+        byte[] key = encode(lraId);
+        int hash = lraId.hashCode();
+
+        lock.writeLock().lock();
+
+        try {
+            checkOpen();
+
+            int index = find(key, hash);
+
+            if (index >= 0) {
+                buffer.put(slot(index) + STATUS_OFFSET, (byte) status.ordinal());
+                return;
+            } else if (index == -(capacity + 1)) {
+                throw new IllegalStateException("the outcome store is full (capacity " + capacity + ")");
+            }
+
+            int pos = slot(-index - 1);
+
+            buffer.put(pos + STATUS_OFFSET, (byte) status.ordinal());
+            buffer.putShort(pos + LENGTH_OFFSET, (short) key.length);
+            buffer.putInt(pos + HASH_OFFSET, hash);
+
+            for (int i = 0; i < key.length; i++) {
+                buffer.put(pos + KEY_OFFSET + i, key[i]);
+            }
+
+            // mark the slot as used last so that a partially written slot is never visible
+            buffer.put(pos + STATE_OFFSET, USED);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompensatorStatus get(String lraId) {
+        byte[] key = encode(lraId);
+
+        lock.readLock().lock();
+
+        try {
+            checkOpen();
+
+            int index = find(key, lraId.hashCode());
+
+            return index < 0 ? null : STATUSES[buffer.get(slot(index) + STATUS_OFFSET)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean forget(String lraId) {
+        byte[] key = encode(lraId);
+
+        lock.writeLock().lock();
+
+        try {
+            checkOpen();
+
+            int index = find(key, lraId.hashCode());
+
+            if (index < 0) {
+                return false;
+            }
+
+            size--;
+
+            // fill the hole with any later outcome whose probe sequence passes through it
+            int hole = index;
+
+            for (int i = next(hole); i != hole && buffer.get(slot(i) + STATE_OFFSET) != EMPTY; i = next(i)) {
+                if (distance(home(buffer.getInt(slot(i) + HASH_OFFSET)), i) >= distance(hole, i)) {
+                    // the original stays in place until it becomes the hole, so a failure part way
+                    // through leaves a duplicate that lookups never reach rather than losing the outcome
+                    move(i, hole);
+                    hole = i;
+                }
+            }
+
+            buffer.put(slot(hole) + STATE_OFFSET, EMPTY);
+
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write any outcomes that are not yet on stable storage to the file
+     */
+    public void flush() {
+        lock.writeLock().lock();
+
+        try {
+            checkOpen();
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+
+        try {
+            if (!closed) {
+                closed = true;
+                buffer.force();
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Probe for a key returning its slot index if it is present. Otherwise return -(index + 1)
+     * where index is the slot into which the key should be inserted, or -(capacity + 1) if the
+     * store is full.
+     */
+    private int find(byte[] key, int hash) {
+        int index = home(hash);
+
+        for (int probes = 0; probes < capacity; probes++, index = next(index)) {
+            int pos = slot(index);
+
+            if (buffer.get(pos + STATE_OFFSET) == EMPTY) {
+                return -(index + 1);
+            } else if (matches(pos, key, hash)) {
+                return index;
+            }
+        }
+
+        return -(capacity + 1);
+    }
+
+    /*
+     * Copy the outcome in one slot over the outcome being forgotten in another. The hash is written
+     * first so that the forgotten LRA id no longer matches, and the copy only matches once it is complete.
+     */
+    private void move(int from, int to) {
+        int src = slot(from);
+        int dst = slot(to);
+        short length = buffer.getShort(src + LENGTH_OFFSET);
+
+        buffer.putInt(dst + HASH_OFFSET, buffer.getInt(src + HASH_OFFSET));
+
+        for (int i = 0; i < length; i++) {
+            buffer.put(dst + KEY_OFFSET + i, buffer.get(src + KEY_OFFSET + i));
+        }
+
+        buffer.put(dst + STATUS_OFFSET, buffer.get(src + STATUS_OFFSET));
+        buffer.putShort(dst + LENGTH_OFFSET, length);
+        buffer.put(dst + STATE_OFFSET, USED);
+    }
+
+    private boolean matches(int pos, byte[] key, int hash) {
+        if (buffer.getInt(pos + HASH_OFFSET) != hash || buffer.getShort(pos + LENGTH_OFFSET) != key.length) {
+            return false;
+        }
+
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(pos + KEY_OFFSET + i) != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private byte[] encode(String lraId) {
+        byte[] key = lraId.getBytes(StandardCharsets.UTF_8);
+
+        if (key.length > maxKeyLength) {
+            throw new IllegalArgumentException("LRA id is longer than " + maxKeyLength + " bytes: " + lraId);
+        }
+
+        return key;
+    }
+
+    private int home(int hash) {
+        return Math.floorMod(hash ^ (hash >>> 16), capacity);
+    }
+
+    // the number of probes from one slot to another
+    private int distance(int from, int to) {
+        return to >= from ? to - from : to + capacity - from;
+    }
+
+    private int next(int index) {
+        return index + 1 == capacity ? 0 : index + 1;
+    }
+
+    private int slot(int index) {
+        return HEADER_SIZE + index * slotSize;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("the outcome store is closed");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *******************************************************************************
+ * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.eclipse.microprofile.lra.tck.participant.service;
+
+import org.eclipse.microprofile.lra.annotation.CompensatorStatus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedOutcomeStoreTest {
+    private static final CompensatorStatus[] STATUSES = CompensatorStatus.values();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordAndForget() throws IOException {
+        try (MappedOutcomeStore store = new MappedOutcomeStore(file(), 8)) {
+            store.put("lra-1", CompensatorStatus.FailedToComplete);
+            store.put("lra-1", CompensatorStatus.Completed);
+
+            assertEquals(1, store.size());
+            assertEquals(CompensatorStatus.Completed, store.get("lra-1"));
+            assertTrue(store.forget("lra-1"));
+            assertFalse(store.forget("lra-1"));
+            assertNull(store.get("lra-1"));
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    public void outcomesSurviveReopening() throws IOException {
+        Path file = file();
+
+        try (MappedOutcomeStore store = new MappedOutcomeStore(file, 8)) {
+            store.put("lra-1", CompensatorStatus.FailedToCompensate);
+            store.put("lra-2", CompensatorStatus.Compensating);
+            store.forget("lra-2");
+        }
+
+        try (MappedOutcomeStore store = new MappedOutcomeStore(file, 8)) {
+            assertEquals(1, store.size());
+            assertEquals(CompensatorStatus.FailedToCompensate, store.get("lra-1"));
+            assertNull(store.get("lra-2"));
+        }
+    }
+
+    @Test
+    public void fullStoreRefusesNewOutcomes() throws IOException {
+        try (MappedOutcomeStore store = new MappedOutcomeStore(file(), 4)) {
+            for (int i = 0; i < 4; i++) {
+                store.put("lra-" + i, CompensatorStatus.Completing);
+            }
+
+            try {
+                store.put("lra-4", CompensatorStatus.Completing);
+                fail("a full store accepted a new outcome");
+            } catch (IllegalStateException expected) {
+                // the store is full
+            }
+
+            assertTrue(store.forget("lra-2"));
+            store.put("lra-4", CompensatorStatus.Completing);
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals("lra-" + i, i == 2 ? null : CompensatorStatus.Completing, store.get("lra-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void forgettingKeepsCollidingOutcomesReachable() throws IOException {
+        Random random = new Random(42);
+        Map<String, CompensatorStatus> expected = new HashMap<>();
+
+        // a small table so that probe sequences overlap and wrap around
+        try (MappedOutcomeStore store = new MappedOutcomeStore(file(), 16)) {
+            for (int op = 0; op < 100_000; op++) {
+                String lraId = "lra-" + random.nextInt(40);
+
+                if (random.nextBoolean()) {
+                    assertEquals(expected.remove(lraId) != null, store.forget(lraId));
+                } else if (expected.containsKey(lraId) || expected.size() < 16) {
+                    CompensatorStatus status = STATUSES[random.nextInt(STATUSES.length)];
+
+                    expected.put(lraId, status);
+                    store.put(lraId, status);
+                }
+
+                assertEquals(expected.size(), store.size());
+            }
+
+            for (int i = 0; i < 40; i++) {
+                assertEquals(expected.get("lra-" + i), store.get("lra-" + i));
+            }
+        }
+    }
+
+    private Path file() throws IOException {
+        return folder.newFile().toPath();
+    }
+}